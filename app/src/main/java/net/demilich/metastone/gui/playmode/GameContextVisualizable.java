@@ -11,6 +11,7 @@ import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.decks.DeckFormat;
 import net.demilich.metastone.game.events.GameEvent;
+import net.demilich.metastone.game.events.GameEventType;
 import net.demilich.metastone.game.logic.GameLogic;
 
 public class GameContextVisualizable extends GameContext {
@@ -49,6 +50,12 @@ public class GameContextVisualizable extends GameContext {
 		return gameEvents;
 	}
 
+	@Override
+	public boolean hasGameEventListeners(GameEventType eventType) {
+		// every event is shown, whether triggers listen to it or not
+		return !ignoreEvents();
+	}
+
 	public boolean isBlockedByAnimation() {
 		return blockedByAnimation;
 	}
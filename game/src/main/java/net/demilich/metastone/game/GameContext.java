@@ -2,7 +2,9 @@ package net.demilich.metastone.game;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.slf4j.Logger;
@@ -18,9 +20,18 @@ import net.demilich.metastone.game.decks.DeckFormat;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.minions.Summon;
 import net.demilich.metastone.game.events.GameEvent;
+import net.demilich.metastone.game.events.GameEventType;
+import net.demilich.metastone.game.logic.ActionCodec;
+import net.demilich.metastone.game.logic.EntityIndex;
 import net.demilich.metastone.game.logic.GameLogic;
+import net.demilich.metastone.game.logic.JournaledList;
+import net.demilich.metastone.game.logic.JournaledMap;
+import net.demilich.metastone.game.logic.JournaledStack;
 import net.demilich.metastone.game.logic.MatchResult;
 import net.demilich.metastone.game.logic.TargetLogic;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ValidActionList;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.spells.trigger.IGameEventListener;
 import net.demilich.metastone.game.spells.trigger.TriggerManager;
 import net.demilich.metastone.game.targeting.CardReference;
@@ -38,8 +49,10 @@ public class GameContext implements Cloneable, IDisposable {
 	private final DeckFormat deckFormat;
 	private final TargetLogic targetLogic = new TargetLogic();
 	private TriggerManager triggerManager = new TriggerManager();
-	private final HashMap<Environment, Object> environment = new HashMap<>();
-	private final List<CardCostModifier> cardCostModifiers = new ArrayList<>();
+	private final HashMap<Environment, Object> environment = new JournaledMap<>();
+	private final List<CardCostModifier> cardCostModifiers = new JournaledList<>();
+	private final ZobristKey zobristKey = new ZobristKey();
+	private final EntityIndex entityIndex = new EntityIndex();
 
 	protected int activePlayer = -1;
 	private Player winner;
@@ -51,6 +64,13 @@ public class GameContext implements Cloneable, IDisposable {
 
 	private boolean ignoreEvents;
 
+	private ValidActionList validActions;
+	private long validActionsStateVersion = -1;
+	private long validActionsTriggerRevision;
+	private int validActionsActivePlayer;
+	private TurnState validActionsTurnState;
+	private int validActionsTurn;
+
 	private CardCollection tempCards = new CardCollection();
 
 	public GameContext(Player player1, Player player2, GameLogic logic, DeckFormat deckFormat) {
@@ -58,6 +78,11 @@ public class GameContext implements Cloneable, IDisposable {
 		player1.setId(PLAYER_1);
 		this.getPlayers()[PLAYER_2] = player2;
 		player2.setId(PLAYER_2);
+		player1.setZobristKey(zobristKey);
+		player2.setZobristKey(zobristKey);
+		player1.setEntityIndex(entityIndex);
+		player2.setEntityIndex(entityIndex);
+		triggerManager.setZobristKey(zobristKey);
 		this.logic = logic;
 		this.deckFormat = deckFormat;
 		this.logic.setContext(this);
@@ -89,7 +114,9 @@ public class GameContext implements Cloneable, IDisposable {
 		// player2Clone.getDeck().shuffle();
 		GameContext clone = new GameContext(player1Clone, player2Clone, logicClone, deckFormat);
 		clone.tempCards = tempCards.clone();
-		clone.triggerManager = triggerManager.clone();
+		Map<IGameEventListener, IGameEventListener> clonedTriggers = new IdentityHashMap<>();
+		clone.triggerManager = triggerManager.clone(clonedTriggers);
+		clone.triggerManager.setZobristKey(clone.zobristKey);
 		clone.activePlayer = activePlayer;
 		clone.turn = turn;
 		clone.actionsThisTurn = actionsThisTurn;
@@ -98,16 +125,19 @@ public class GameContext implements Cloneable, IDisposable {
 		clone.winner = logicClone.getWinner(player1Clone, player2Clone);
 		clone.cardCostModifiers.clear();
 		for (CardCostModifier cardCostModifier : cardCostModifiers) {
-			clone.cardCostModifiers.add(cardCostModifier.clone());
+			// cost modifiers are registered as triggers as well; reuse the
+			// trigger clone so that both views stay the same object
+			IGameEventListener clonedTrigger = clonedTriggers.get(cardCostModifier);
+			clone.cardCostModifiers.add(clonedTrigger != null ? (CardCostModifier) clonedTrigger : cardCostModifier.clone());
 		}
 		
-		Stack<Integer> damageStack = new Stack<Integer>();
+		Stack<Integer> damageStack = new JournaledStack<Integer>();
 		damageStack.addAll(getDamageStack());
 		clone.getEnvironment().put(Environment.DAMAGE_STACK, damageStack);
-		Stack<EntityReference> summonReferenceStack = new Stack<EntityReference>();
+		Stack<EntityReference> summonReferenceStack = new JournaledStack<EntityReference>();
 		summonReferenceStack.addAll(getSummonReferenceStack());
 		clone.getEnvironment().put(Environment.SUMMON_REFERENCE_STACK, summonReferenceStack);
-		Stack<EntityReference> eventTargetReferenceStack = new Stack<EntityReference>();
+		Stack<EntityReference> eventTargetReferenceStack = new JournaledStack<EntityReference>();
 		eventTargetReferenceStack.addAll(getEventTargetStack());
 		clone.getEnvironment().put(Environment.EVENT_TARGET_REFERENCE_STACK, eventTargetReferenceStack);
 		
@@ -120,6 +150,10 @@ public class GameContext implements Cloneable, IDisposable {
 		return clone;
 	}
 
+	public GameAction decodeAction(int code) {
+		return logic.decodeAction(activePlayer, code);
+	}
+
 	@Override
 	public void dispose() {
 		for (int i = 0; i < players.length; i++) {
@@ -130,6 +164,14 @@ public class GameContext implements Cloneable, IDisposable {
 		environment.clear();
 	}
 
+	public int encodeAction(GameAction action) {
+		return ActionCodec.encode(this, getActivePlayer(), action);
+	}
+
+	public int encodeValidActions(int[] codes) {
+		return getValidActionList().encode(this, getActivePlayer(), codes);
+	}
+
 	private void endGame() {
 		winner = logic.getWinner(getActivePlayer(), getOpponent(getActivePlayer()));
 		for (Player player : getPlayers()) {
@@ -150,20 +192,12 @@ public class GameContext implements Cloneable, IDisposable {
 
 	public void endTurn() {
 		logic.endTurn(activePlayer);
+		recordState();
 		activePlayer = activePlayer == PLAYER_1 ? PLAYER_2 : PLAYER_1;
 		onGameStateChanged();
 		turnState = TurnState.TURN_ENDED;
 	}
 
-	private Card findCardinCollection(CardCollection cardCollection, int cardId) {
-		for (Card card : cardCollection) {
-			if (card.getId() == cardId) {
-				return card;
-			}
-		}
-		return null;
-	}
-
 	public void fireGameEvent(GameEvent gameEvent) {
 		if (ignoreEvents()) {
 			return;
@@ -179,8 +213,13 @@ public class GameContext implements Cloneable, IDisposable {
 	}
 
 	public boolean gameDecided() {
-		result = logic.getMatchResult(getActivePlayer(), getOpponent(getActivePlayer()));
-		winner = logic.getWinner(getActivePlayer(), getOpponent(getActivePlayer()));
+		MatchResult result = logic.getMatchResult(getActivePlayer(), getOpponent(getActivePlayer()));
+		Player winner = logic.getWinner(getActivePlayer(), getOpponent(getActivePlayer()));
+		if (result != this.result || winner != this.winner) {
+			recordState();
+			this.result = result;
+			this.winner = winner;
+		}
 		return result != MatchResult.RUNNING;
 	}
 
@@ -239,6 +278,18 @@ public class GameContext implements Cloneable, IDisposable {
 		return card;
 	}
 
+	public Card getCardPrototypeById(String cardId) {
+		Card card = CardCatalogue.getPrototypeById(cardId);
+		if (card == null) {
+			for (Card tempCard : tempCards) {
+				if (tempCard.getCardId().equalsIgnoreCase(cardId)) {
+					return tempCard;
+				}
+			}
+		}
+		return card;
+	}
+
 	public List<CardCostModifier> getCardCostModifiers() {
 		return cardCostModifiers;
 	}
@@ -246,7 +297,7 @@ public class GameContext implements Cloneable, IDisposable {
 	@SuppressWarnings("unchecked")
 	public Stack<Integer> getDamageStack() {
 		if (!environment.containsKey(Environment.DAMAGE_STACK)) {
-			environment.put(Environment.DAMAGE_STACK, new Stack<Integer>());
+			environment.put(Environment.DAMAGE_STACK, new JournaledStack<Integer>());
 		}
 		return (Stack<Integer>) environment.get(Environment.DAMAGE_STACK);
 	}
@@ -255,6 +306,10 @@ public class GameContext implements Cloneable, IDisposable {
 		return deckFormat;
 	}
 
+	public EntityIndex getEntityIndex() {
+		return entityIndex;
+	}
+
 	public HashMap<Environment, Object> getEnvironment() {
 		return environment;
 	}
@@ -266,7 +321,7 @@ public class GameContext implements Cloneable, IDisposable {
 	@SuppressWarnings("unchecked")
 	public Stack<EntityReference> getEventTargetStack() {
 		if (!environment.containsKey(Environment.EVENT_TARGET_REFERENCE_STACK)) {
-			environment.put(Environment.EVENT_TARGET_REFERENCE_STACK, new Stack<EntityReference>());
+			environment.put(Environment.EVENT_TARGET_REFERENCE_STACK, new JournaledStack<EntityReference>());
 		}
 		return (Stack<EntityReference>) environment.get(Environment.EVENT_TARGET_REFERENCE_STACK);
 	}
@@ -293,6 +348,14 @@ public class GameContext implements Cloneable, IDisposable {
 		return player.getMinions().size();
 	}
 
+	/**
+	 * @return a number which changes with every change of the state,
+	 *         including rollbacks
+	 */
+	public long getStateVersion() {
+		return zobristKey.getModificationCount();
+	}
+
 	public int getSummonCount(Player player) {
 		return player.getSummons().size();
 	}
@@ -368,7 +431,7 @@ public class GameContext implements Cloneable, IDisposable {
 	@SuppressWarnings("unchecked")
 	public Stack<EntityReference> getSummonReferenceStack() {
 		if (!environment.containsKey(Environment.SUMMON_REFERENCE_STACK)) {
-			environment.put(Environment.SUMMON_REFERENCE_STACK, new Stack<EntityReference>());
+			environment.put(Environment.SUMMON_REFERENCE_STACK, new JournaledStack<EntityReference>());
 		}
 		return (Stack<EntityReference>) environment.get(Environment.SUMMON_REFERENCE_STACK);
 	}
@@ -393,10 +456,22 @@ public class GameContext implements Cloneable, IDisposable {
 		return totalSummonCount;
 	}
 
+	public List<IGameEventListener> getQuestsAssociatedWith(EntityReference entityReference) {
+		return triggerManager.getQuestsAssociatedWith(entityReference);
+	}
+
+	public List<IGameEventListener> getSecretsAssociatedWith(EntityReference entityReference) {
+		return triggerManager.getSecretsAssociatedWith(entityReference);
+	}
+
 	public List<IGameEventListener> getTriggersAssociatedWith(EntityReference entityReference) {
 		return triggerManager.getTriggersAssociatedWith(entityReference);
 	}
 
+	public long getTriggerRevision() {
+		return triggerManager.getRevision();
+	}
+
 	public int getTurn() {
 		return turn;
 	}
@@ -405,11 +480,36 @@ public class GameContext implements Cloneable, IDisposable {
 		return turnState;
 	}
 
+	/**
+	 * @return the actions of the active player, computed once per state; the
+	 *         list must not be modified
+	 */
 	public List<GameAction> getValidActions() {
-		if (gameDecided()) {
-			return new ArrayList<>();
+		return getValidActionList();
+	}
+
+	private ValidActionList getValidActionList() {
+		if (validActions != null && validActionsStateVersion == getStateVersion() && validActionsTriggerRevision == getTriggerRevision()
+				&& validActionsActivePlayer == activePlayer && validActionsTurnState == turnState && validActionsTurn == turn) {
+			return validActions;
 		}
-		return logic.getValidActions(activePlayer);
+		ValidActionList validActions = gameDecided() ? new ValidActionList() : logic.getValidActions(activePlayer);
+		// stamp after computing, as checking the result may record state
+		this.validActions = validActions;
+		validActionsStateVersion = getStateVersion();
+		validActionsTriggerRevision = getTriggerRevision();
+		validActionsActivePlayer = activePlayer;
+		validActionsTurnState = turnState;
+		validActionsTurn = turn;
+		return validActions;
+	}
+
+	/**
+	 * Equal states yield equal keys; entity ids are not part of the key, so
+	 * states reached by different move orders match as well.
+	 */
+	public long getZobristKey() {
+		return zobristKey.getValue() ^ ZobristKey.hashFeature(ZobristKey.FEATURE_ACTIVE_PLAYER, activePlayer);
 	}
 
 	public int getWinningPlayerId() {
@@ -423,6 +523,18 @@ public class GameContext implements Cloneable, IDisposable {
 		return logic.hasAutoHeroPower(activePlayer);
 	}
 
+	public boolean hasGameEventListeners(GameEventType eventType) {
+		return !ignoreEvents() && triggerManager.hasListeners(eventType);
+	}
+
+	/**
+	 * Needed after a rollback, which restores triggers without changing the
+	 * state version.
+	 */
+	public void invalidateCaches() {
+		triggerManager.invalidateRevision();
+	}
+
 	public boolean ignoreEvents() {
 		return ignoreEvents;
 	}
@@ -438,11 +550,23 @@ public class GameContext implements Cloneable, IDisposable {
 	protected void onGameStateChanged() {
 	}
 
+	public void performAction(int code) {
+		performAction(activePlayer, decodeAction(code));
+	}
+
 	private void performAction(int playerId, GameAction gameAction) {
 		logic.performGameAction(playerId, gameAction);
 		onGameStateChanged();
 	}
 
+	public boolean isTracked(Entity entity) {
+		return entity.isAttachedTo(zobristKey);
+	}
+
+	public void moveTrigger(IGameEventListener trigger, Entity host) {
+		triggerManager.moveTrigger(trigger, host);
+	}
+
 	public void play() {
 		logger.debug("Game starts: " + getPlayer1().getName() + " VS. " + getPlayer2().getName());
 		init();
@@ -471,6 +595,7 @@ public class GameContext implements Cloneable, IDisposable {
 	}
 
 	public boolean playTurn() {
+		recordState();
 		if (++actionsThisTurn > 99) {
 			logger.warn("Turn has been forcefully ended after {} actions", actionsThisTurn);
 			endTurn();
@@ -505,6 +630,31 @@ public class GameContext implements Cloneable, IDisposable {
 		triggerManager.printCurrentTriggers();
 	}
 	
+	/**
+	 * Must be called before any of the scalar turn fields change.
+	 */
+	private void recordState() {
+		if (UndoJournal.current() == null) {
+			return;
+		}
+		int activePlayer = this.activePlayer;
+		Player winner = this.winner;
+		MatchResult result = this.result;
+		TurnState turnState = this.turnState;
+		int turn = this.turn;
+		int actionsThisTurn = this.actionsThisTurn;
+		boolean ignoreEvents = this.ignoreEvents;
+		UndoJournal.record(() -> {
+			this.activePlayer = activePlayer;
+			this.winner = winner;
+			this.result = result;
+			this.turnState = turnState;
+			this.turn = turn;
+			this.actionsThisTurn = actionsThisTurn;
+			this.ignoreEvents = ignoreEvents;
+		});
+	}
+
 	public void removeTrigger(IGameEventListener trigger) {
 		triggerManager.removeTrigger(trigger);
 	}
@@ -520,9 +670,9 @@ public class GameContext implements Cloneable, IDisposable {
 		}
 		switch (cardReference.getLocation()) {
 		case DECK:
-			return findCardinCollection(player.getDeck(), cardReference.getCardId());
+			return player.getDeck().find(cardReference.getCardId());
 		case HAND:
-			return findCardinCollection(player.getHand(), cardReference.getCardId());
+			return player.getHand().find(cardReference.getCardId());
 		case PENDING:
 			return getPendingCard();
 		case HERO_POWER:
@@ -556,6 +706,9 @@ public class GameContext implements Cloneable, IDisposable {
 	}
 
 	public void setIgnoreEvents(boolean ignoreEvents) {
+		if (this.ignoreEvents != ignoreEvents) {
+			recordState();
+		}
 		this.ignoreEvents = ignoreEvents;
 	}
 	
@@ -568,6 +721,7 @@ public class GameContext implements Cloneable, IDisposable {
 	}
 
 	protected void startTurn(int playerId) {
+		recordState();
 		turn++;
 		logic.startTurn(playerId);
 		onGameStateChanged();
@@ -615,10 +769,9 @@ public class GameContext implements Cloneable, IDisposable {
 	}
 
 	public Entity tryFind(EntityReference targetKey) {
-		try {
-			return resolveSingleTarget(targetKey);
-		} catch (Exception e) {
+		if (targetKey == null) {
+			return null;
 		}
-		return null;
+		return targetLogic.tryFindEntity(this, targetKey);
 	}
 }
@@ -1,6 +1,7 @@
 package net.demilich.metastone.game;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -10,11 +11,18 @@ import net.demilich.metastone.game.behaviour.human.HumanBehaviour;
 import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.decks.Deck;
 import net.demilich.metastone.game.entities.Actor;
+import net.demilich.metastone.game.entities.AttributeTotals;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.EntityType;
 import net.demilich.metastone.game.entities.heroes.Hero;
 import net.demilich.metastone.game.entities.minions.Minion;
+import net.demilich.metastone.game.entities.minions.Permanent;
 import net.demilich.metastone.game.entities.minions.Summon;
+import net.demilich.metastone.game.logic.EntityIndex;
+import net.demilich.metastone.game.logic.EntityZone;
+import net.demilich.metastone.game.logic.JournaledSet;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.statistics.GameStatistics;
 import net.demilich.metastone.game.gameconfig.PlayerConfig;
 
@@ -25,11 +33,19 @@ public class Player extends Entity {
 
 	private final CardCollection deck;
 	private final CardCollection hand = new CardCollection();
-	private final List<Entity> setAsideZone = new ArrayList<>();
-	private final List<Entity> graveyard = new ArrayList<>();
-	private final List<Summon> summons = new ArrayList<>();
-	private final HashSet<String> secrets = new HashSet<>();
-	private final HashSet<String> quests = new HashSet<>();
+	private final EntityZone<Entity> setAsideZone = new EntityZone<>();
+	private final EntityZone<Entity> graveyard = new EntityZone<>();
+	private final EntityZone<Summon> summons = new EntityZone<>(true);
+	private final AttributeTotals summonTotals = new AttributeTotals();
+	private final HashSet<String> secrets = new JournaledSet<>();
+	private final HashSet<String> quests = new JournaledSet<>();
+
+	// read-only lists of the summons by type; they are replaced, not
+	// updated, when the summons change
+	private List<Minion> minions;
+	private List<Permanent> permanents;
+	private List<Actor> characters;
+	private int summonsVersion;
 
 	private final GameStatistics statistics = new GameStatistics();
 
@@ -42,15 +58,16 @@ public class Player extends Entity {
 	private IBehaviour behaviour;
 
 	private Player(Player otherPlayer) {
+		this.summons.setAttributeTotals(summonTotals);
 		this.setName(otherPlayer.getName());
 		this.deckName = otherPlayer.getDeckName();
 		this.setHero(otherPlayer.getHero().clone());
 		this.deck = otherPlayer.getDeck().clone();
-		this.attributes.putAll(otherPlayer.getAttributes());
-		this.hand.addAll(otherPlayer.getHand().clone());
+		this.shareAttributes(otherPlayer);
+		this.hand.addAll(otherPlayer.getHand());
 		this.summons.addAll(otherPlayer.getSummons().stream().map(Summon::clone).collect(Collectors.toList()));
-		this.graveyard.addAll(otherPlayer.getGraveyard().stream().map(Entity::clone).collect(Collectors.toList()));
-		this.setAsideZone.addAll(otherPlayer.getSetAsideZone().stream().map(Entity::clone).collect(Collectors.toList()));
+		this.graveyard.addSnapshots(otherPlayer.graveyard);
+		this.setAsideZone.addSnapshots(otherPlayer.setAsideZone);
 		this.secrets.addAll(otherPlayer.secrets);
 		this.quests.addAll(otherPlayer.quests);
 		this.setId(otherPlayer.getId());
@@ -62,6 +79,7 @@ public class Player extends Entity {
 	}
 
 	public Player(PlayerConfig config) {
+		this.summons.setAttributeTotals(summonTotals);
 		config.build();
 		Deck selectedDeck = config.getDeckForPlay();
 		this.deck = selectedDeck.getCardsCopy();
@@ -82,9 +100,13 @@ public class Player extends Entity {
 	}
 
 	public List<Actor> getCharacters() {
-		List<Actor> characters = new ArrayList<Actor>();
-		characters.add(getHero());
-		characters.addAll(getMinions());
+		updateSummonLists();
+		if (characters == null || characters.get(0) != hero) {
+			List<Actor> characters = new ArrayList<Actor>(minions.size() + 1);
+			characters.add(hero);
+			characters.addAll(minions);
+			this.characters = Collections.unmodifiableList(characters);
+		}
 		return characters;
 	}
 
@@ -126,19 +148,23 @@ public class Player extends Entity {
 	}
 
 	public List<Minion> getMinions() {
-		List<Minion> minions = new ArrayList<Minion>();
-		for (Summon summon : getSummons()) {
-			if (summon instanceof Minion) {
-				minions.add((Minion) summon);
-			}
-		}
+		updateSummonLists();
 		return minions;
 	}
 
+	public List<Permanent> getPermanents() {
+		updateSummonLists();
+		return permanents;
+	}
+
 	public HashSet<String> getQuests() {
 		return quests;
 	}
 
+	public AttributeTotals getSummonAttributeTotals() {
+		return summonTotals;
+	}
+
 	public List<Summon> getSummons() {
 		return summons;
 	}
@@ -163,7 +189,29 @@ public class Player extends Entity {
 		this.behaviour = behaviour;
 	}
 
+	public void setEntityIndex(EntityIndex index) {
+		hand.setEntityIndex(index);
+		deck.setEntityIndex(index);
+		summons.setEntityIndex(index);
+		graveyard.setEntityIndex(index);
+		setAsideZone.setEntityIndex(index);
+	}
+
 	public void setHero(Hero hero) {
+		if (this.hero == hero) {
+			return;
+		}
+		Hero oldHero = this.hero;
+		UndoJournal.record(() -> setHero(oldHero));
+		if (getZobristKey() != null) {
+			long zoneKey = ZobristKey.hashZone(ZobristKey.ZONE_HERO, getId(), 0);
+			if (oldHero != null) {
+				oldHero.detachZobristKey(zoneKey);
+			}
+			if (hero != null) {
+				hero.attachZobristKey(getZobristKey(), zoneKey);
+			}
+		}
 		this.hero = hero;
 	}
 
@@ -172,20 +220,69 @@ public class Player extends Entity {
 	}
 
 	public void setLockedMana(int lockedMana) {
+		if (this.lockedMana != lockedMana) {
+			int oldLockedMana = this.lockedMana;
+			UndoJournal.record(() -> setLockedMana(oldLockedMana));
+			updateAttributeKey(ZobristKey.hashFeature(ZobristKey.FEATURE_LOCKED_MANA, oldLockedMana),
+					ZobristKey.hashFeature(ZobristKey.FEATURE_LOCKED_MANA, lockedMana));
+		}
 		this.lockedMana = lockedMana;
 	}
 
 	public void setMana(int mana) {
+		if (this.mana != mana) {
+			int oldMana = this.mana;
+			UndoJournal.record(() -> setMana(oldMana));
+			updateAttributeKey(ZobristKey.hashFeature(ZobristKey.FEATURE_MANA, oldMana), ZobristKey.hashFeature(ZobristKey.FEATURE_MANA, mana));
+		}
 		this.mana = mana;
 	}
 
 	public void setMaxMana(int maxMana) {
+		if (this.maxMana != maxMana) {
+			int oldMaxMana = this.maxMana;
+			UndoJournal.record(() -> setMaxMana(oldMaxMana));
+			updateAttributeKey(ZobristKey.hashFeature(ZobristKey.FEATURE_MAX_MANA, oldMaxMana),
+					ZobristKey.hashFeature(ZobristKey.FEATURE_MAX_MANA, maxMana));
+		}
 		this.maxMana = maxMana;
 	}
 
+	/**
+	 * Must be called after the id of the player has been assigned.
+	 */
+	public void setZobristKey(ZobristKey key) {
+		attachZobristKey(key, ZobristKey.hashZone(ZobristKey.ZONE_PLAYER, getId(), 0));
+		hero.attachZobristKey(key, ZobristKey.hashZone(ZobristKey.ZONE_HERO, getId(), 0));
+		hand.setZobristKey(key, ZobristKey.ZONE_HAND, getId());
+		deck.setZobristKey(key, ZobristKey.ZONE_DECK, getId());
+		summons.setZobristKey(key, ZobristKey.ZONE_BOARD, getId());
+		graveyard.setZobristKey(key, ZobristKey.ZONE_GRAVEYARD, getId());
+		setAsideZone.setZobristKey(key, ZobristKey.ZONE_SET_ASIDE, getId());
+	}
+
 	@Override
 	public String toString() {
 		return "[PLAYER " + "id: " + getId() + ", name: " + getName() + ", hero: " + getHero() + "]";
 	}
 
+	private void updateSummonLists() {
+		if (minions != null && summonsVersion == summons.getVersion()) {
+			return;
+		}
+		List<Minion> minions = new ArrayList<Minion>(summons.size());
+		List<Permanent> permanents = new ArrayList<Permanent>(0);
+		for (Summon summon : summons) {
+			if (summon instanceof Minion) {
+				minions.add((Minion) summon);
+			} else if (summon instanceof Permanent) {
+				permanents.add((Permanent) summon);
+			}
+		}
+		this.minions = Collections.unmodifiableList(minions);
+		this.permanents = Collections.unmodifiableList(permanents);
+		characters = null;
+		summonsVersion = summons.getVersion();
+	}
+
 }
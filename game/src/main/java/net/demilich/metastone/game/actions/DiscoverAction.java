@@ -55,7 +55,7 @@ public class DiscoverAction extends GameAction {
 
 	@Override
 	public DiscoverAction clone() {
-		DiscoverAction clone = DiscoverAction.createDiscover(getSpell().clone());
+		DiscoverAction clone = DiscoverAction.createDiscover(getSpell());
 		clone.setActionSuffix(getActionSuffix());
 		clone.setSource(getSource());
 		return clone;
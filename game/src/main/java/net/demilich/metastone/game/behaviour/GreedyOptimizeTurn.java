@@ -16,6 +16,8 @@ import net.demilich.metastone.game.cards.Card;
 
 public class GreedyOptimizeTurn extends Behaviour {
 
+	private static final double WIN_SCORE = 10000;
+
 	private final Logger logger = LoggerFactory.getLogger(GreedyOptimizeTurn.class);
 
 	private final IGameStateHeuristic heuristic;
@@ -28,34 +30,53 @@ public class GreedyOptimizeTurn extends Behaviour {
 		this.heuristic = heuristic;
 	}
 
-	private double alphaBeta(GameContext context, int playerId, GameAction action, int depth) {
-		GameContext simulation = context.clone();
-		simulation.getLogic().performGameAction(playerId, action);
-		if (!evaluatedActions.containsKey(action.getActionType())) {
-			evaluatedActions.put(action.getActionType(), 0);
-		}
-		evaluatedActions.put(action.getActionType(), evaluatedActions.get(action.getActionType()) + 1);
-		if (depth == 0 || simulation.getActivePlayerId() != playerId || simulation.gameDecided()) {
-			return heuristic.getScore(simulation, playerId);
-		}
+	private double alphaBeta(GameContext simulation, int playerId, GameAction action, int depth) {
+		simulation.getLogic().makeGameAction(playerId, action);
+		try {
+			if (!evaluatedActions.containsKey(action.getActionType())) {
+				evaluatedActions.put(action.getActionType(), 0);
+			}
+			evaluatedActions.put(action.getActionType(), evaluatedActions.get(action.getActionType()) + 1);
+			if (depth == 0 || simulation.getActivePlayerId() != playerId || simulation.gameDecided()) {
+				return heuristic.getScore(simulation, playerId);
+			}
 
-		List<GameAction> validActions = simulation.getValidActions();
+			int entry = table.find(simulation);
+			if (entry != -1 && table.getDepth(entry) >= depth
+					&& (table.getBound(entry) == TranspositionTable.EXACT || table.getScore(entry) >= WIN_SCORE)) {
+				return table.getScore(entry);
+			}
 
-		double score = Float.NEGATIVE_INFINITY;
-		if (table.known(simulation)) {
-			return table.getScore(simulation);
-			// logger.info("GameState is known, has score of {}", score);
-		} else {
-			for (GameAction gameAction : validActions) {
-				score = Math.max(score, alphaBeta(simulation, playerId, gameAction, depth - 1));
-				if (score >= 10000) {
-					break;
+			List<GameAction> validActions = simulation.getValidActions();
+			// search the best action of an earlier visit first, it is the
+			// most likely one to reach a winning score
+			int firstAction = entry != -1 ? table.getBestAction(entry) : -1;
+			if (firstAction >= validActions.size()) {
+				firstAction = -1;
+			}
+			double score = Float.NEGATIVE_INFINITY;
+			int bestAction = -1;
+			if (firstAction != -1) {
+				score = alphaBeta(simulation, playerId, validActions.get(firstAction), depth - 1);
+				bestAction = firstAction;
+			}
+			for (int i = 0; i < validActions.size() && score < WIN_SCORE; i++) {
+				if (i == firstAction) {
+					continue;
+				}
+				double actionScore = alphaBeta(simulation, playerId, validActions.get(i), depth - 1);
+				if (actionScore > score) {
+					score = actionScore;
+					bestAction = i;
 				}
 			}
-			table.save(simulation, score);
-		}
+			byte bound = score >= WIN_SCORE ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			table.save(simulation, depth, bound, score, bestAction);
 
-		return score;
+			return score;
+		} finally {
+			simulation.getLogic().unmakeGameAction();
+		}
 	}
 
 	@Override
@@ -104,16 +125,22 @@ public class GreedyOptimizeTurn extends Behaviour {
 			logger.warn("AI behaviour was used in another context!");
 		}
 
+		// scores are kept between the actions of a game, but states of
+		// another game are of no use
+		if (assignedGC != context.hashCode()) {
+			table.clear();
+		}
 		assignedGC = context.hashCode();
 		evaluatedActions.clear();
-		table.clear();
+		table.newSearch();
 
 		GameAction bestAction = validActions.get(0);
 		double bestScore = Double.NEGATIVE_INFINITY;
+		GameContext simulation = context.clone();
 
 		for (GameAction gameAction : validActions) {
 			logger.debug("********************* SIMULATION STARTS *********************");
-			double score = alphaBeta(context, player.getId(), gameAction, 3);
+			double score = alphaBeta(simulation, player.getId(), gameAction, 3);
 			if (score > bestScore) {
 				bestAction = gameAction;
 				bestScore = score;
@@ -1,93 +1,126 @@
 package net.demilich.metastone.game.behaviour;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
-import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
-import net.demilich.metastone.game.Player;
-import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.entities.Entity;
 
+/**
+ * Fixed size transposition table, indexed by the Zobrist key of a game state.
+ * Entries are kept in primitive arrays, so the table does not allocate after
+ * construction and its memory footprint stays constant.
+ *
+ * Each bucket holds two entries: the first one is only replaced by searches
+ * of at least the same depth, or when it stems from an earlier search; the
+ * second one is always replaced. This way the table can be kept across
+ * searches, as long as {@link #newSearch()} is called before each of them.
+ */
 public class TranspositionTable {
 
-	private static int hash(Entity entity) {
-		int hash = entity.getName().hashCode();
-		for (Attribute tag : entity.getAttributes().keySet()) {
-			Object value = entity.getAttributes().get(tag);
-			if (!(value instanceof Integer)) {
-				continue;
-			}
-			hash = mergeHashes(hash, entity.getAttribute(tag).hashCode());
-		}
-		return hash;
-	}
+	public static final byte EXACT = 1;
+	public static final byte LOWER_BOUND = 2;
+	public static final byte UPPER_BOUND = 3;
 
-	private static int mergeHashes(int hash1, int hash2) {
-		int hash = 0;
-		hash = hash * 33 ^ hash1;
-		hash = hash * 33 ^ hash2;
-		return hash;
-	}
+	private static final int DEFAULT_SIZE_BITS = 16;
 
-	private HashMap<Integer, Double> knownScores = new HashMap<Integer, Double>();
+	private final int bucketMask;
+	private final long[] keys;
+	private final double[] scores;
+	private final int[] bestActions;
+	private final byte[] depths;
+	// 0 marks an empty entry
+	private final byte[] bounds;
+	private final byte[] generations;
+	private byte generation;
 
-	// private HashMap<Integer, GameContext> debug = new HashMap<Integer,
-	// GameContext>();
-	private int cachedKey;
+	public TranspositionTable() {
+		this(DEFAULT_SIZE_BITS);
+	}
 
-	private GameContext cachedState;
+	/**
+	 * @param sizeBits
+	 *            the table holds 2^sizeBits entries
+	 */
+	public TranspositionTable(int sizeBits) {
+		int size = 1 << sizeBits;
+		bucketMask = (size >> 1) - 1;
+		keys = new long[size];
+		scores = new double[size];
+		bestActions = new int[size];
+		depths = new byte[size];
+		bounds = new byte[size];
+		generations = new byte[size];
+	}
 
 	public void clear() {
-		knownScores.clear();
+		Arrays.fill(bounds, (byte) 0);
 	}
 
-	public double getScore(GameContext context) {
-		return knownScores.get(hash(context));
+	/**
+	 * Looks up the entry for the current state of the given game.
+	 *
+	 * @return the index of the entry, or -1 if the state is not known
+	 */
+	public int find(GameContext context) {
+		long key = context.getZobristKey();
+		int entry = getBucket(key);
+		if (bounds[entry] != 0 && keys[entry] == key) {
+			return entry;
+		}
+		entry++;
+		if (bounds[entry] != 0 && keys[entry] == key) {
+			return entry;
+		}
+		return -1;
 	}
 
-	private int hash(GameContext context) {
-		if (context == cachedState) {
-			return cachedKey;
-		}
+	/**
+	 * @return the index of the best action in the list of valid actions of
+	 *         the state, or -1 if unknown
+	 */
+	public int getBestAction(int entry) {
+		return bestActions[entry];
+	}
 
-		int hash = context.getActivePlayerId();
+	/**
+	 * @return one of {@link #EXACT}, {@link #LOWER_BOUND} and
+	 *         {@link #UPPER_BOUND}
+	 */
+	public byte getBound(int entry) {
+		return bounds[entry];
+	}
 
-		for (Player player : context.getPlayers()) {
-			hash = mergeHashes(hash, player.getMana());
-			hash = mergeHashes(hash, player.getMaxMana());
-			hash = mergeHashes(hash, hash(player.getHero()));
-			for (Card handCard : player.getHand()) {
-				hash = mergeHashes(hash, hash(handCard));
-			}
+	private int getBucket(long key) {
+		return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+	}
 
-			for (Card deckCard : player.getDeck()) {
-				hash = mergeHashes(hash, hash(deckCard));
-			}
-			for (Entity minion : player.getMinions()) {
-				hash = mergeHashes(hash, hash(minion));
-				hash = mergeHashes(hash, context.getTriggersAssociatedWith(minion.getReference()).size());
-			}
+	public int getDepth(int entry) {
+		return depths[entry];
+	}
 
-		}
-		cachedState = context;
-		cachedKey = hash;
-		return hash;
+	public double getScore(int entry) {
+		return scores[entry];
 	}
 
-	public boolean known(GameContext context) {
-		int key = hash(context);
-		// if (knownScores.containsKey(key)) {
-		// System.out.println("Identical game states found!");
-		// System.out.println("New: " + context);
-		// System.out.println("Existing: " + debug.get(key));
-		// }
-		return knownScores.containsKey(key);
+	/**
+	 * Marks all entries as stale, so they may be replaced by shallower
+	 * results of the next search.
+	 */
+	public void newSearch() {
+		generation++;
 	}
 
-	public void save(GameContext context, double score) {
-		int key = hash(context);
-		knownScores.put(key, score);
-		// debug.put(key, context);
+	public void save(GameContext context, int depth, byte bound, double score, int bestAction) {
+		long key = context.getZobristKey();
+		int entry = getBucket(key);
+		if (bounds[entry] != 0 && generations[entry] == generation && depths[entry] > depth) {
+			entry++;
+		}
+		keys[entry] = key;
+		scores[entry] = score;
+		bestActions[entry] = bestAction;
+		depths[entry] = (byte) depth;
+		bounds[entry] = bound;
+		generations[entry] = generation;
 	}
 
 }
@@ -35,25 +35,28 @@ public class GameStateValueBehaviour extends Behaviour {
 		this.heuristic = new ThreatBasedHeuristic(featureVector);
 	}
 
-	private double alphaBeta(GameContext context, int playerId, GameAction action, int depth) {
-		GameContext simulation = context.clone();
-		simulation.getLogic().performGameAction(playerId, action);
-		if (depth == 0 || simulation.getActivePlayerId() != playerId || simulation.gameDecided()) {
-			return heuristic.getScore(simulation, playerId);
-		}
+	private double alphaBeta(GameContext simulation, int playerId, GameAction action, int depth) {
+		simulation.getLogic().makeGameAction(playerId, action);
+		try {
+			if (depth == 0 || simulation.getActivePlayerId() != playerId || simulation.gameDecided()) {
+				return heuristic.getScore(simulation, playerId);
+			}
 
-		List<GameAction> validActions = simulation.getValidActions();
+			List<GameAction> validActions = simulation.getValidActions();
 
-		double score = Float.NEGATIVE_INFINITY;
+			double score = Float.NEGATIVE_INFINITY;
 
-		for (GameAction gameAction : validActions) {
-			score = Math.max(score, alphaBeta(simulation, playerId, gameAction, depth - 1));
-			if (score >= 100000) {
-				break;
+			for (GameAction gameAction : validActions) {
+				score = Math.max(score, alphaBeta(simulation, playerId, gameAction, depth - 1));
+				if (score >= 100000) {
+					break;
+				}
 			}
-		}
 
-		return score;
+			return score;
+		} finally {
+			simulation.getLogic().unmakeGameAction();
+		}
 	}
 
 	private void answerTrainingData(TrainingData trainingData) {
@@ -103,9 +106,10 @@ public class GameStateValueBehaviour extends Behaviour {
 
 		GameAction bestAction = validActions.get(0);
 		double bestScore = Double.NEGATIVE_INFINITY;
+		GameContext simulation = context.clone();
 
 		for (GameAction gameAction : validActions) {
-			double score = alphaBeta(context, player.getId(), gameAction, depth);
+			double score = alphaBeta(simulation, player.getId(), gameAction, depth);
 			if (score > bestScore) {
 				bestAction = gameAction;
 				bestScore = score;
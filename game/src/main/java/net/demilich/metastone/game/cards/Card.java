@@ -1,6 +1,6 @@
 package net.demilich.metastone.game.cards;
 
-import java.util.EnumMap;
+import java.util.Map;
 
 import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
@@ -11,6 +11,8 @@ import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.EntityType;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.entities.minions.Race;
+import net.demilich.metastone.game.logic.CustomCloneable;
+import net.demilich.metastone.game.logic.UndoJournal;
 import net.demilich.metastone.game.spells.desc.BattlecryDesc;
 import net.demilich.metastone.game.spells.desc.valueprovider.ValueProvider;
 import net.demilich.metastone.game.targeting.CardLocation;
@@ -19,53 +21,74 @@ import net.demilich.metastone.game.targeting.IdFactory;
 
 public abstract class Card extends Entity {
 
-	private String description = "";
-	private final CardType cardType;
-	private final CardSet cardSet;
-	private final Rarity rarity;
-	private HeroClass heroClass;
-	private HeroClass[] heroClasses;
-	private boolean collectible = true;
+	/**
+	 * The part of a card which comes from its description. It is shared by a
+	 * card and all its clones, so the copies of a catalogue card handed out
+	 * for decks and games only hold their own game state. A card which
+	 * changes a shared prototype gets a copy first.
+	 */
+	private static class Prototype extends CustomCloneable {
+
+		private final String cardId;
+		private final CardType cardType;
+		private final CardSet cardSet;
+		private final Rarity rarity;
+		private final HeroClass heroClass;
+		private final HeroClass[] heroClasses;
+		private final ValueProvider manaCostModifier;
+		private String description = "";
+		private boolean collectible = true;
+		private BattlecryDesc battlecry;
+
+		private Prototype(CardDesc desc) {
+			cardId = desc.id;
+			cardType = desc.type;
+			cardSet = desc.set;
+			rarity = desc.rarity;
+			heroClass = desc.heroClass;
+			heroClasses = desc.heroClasses;
+			manaCostModifier = desc.manaCostModifier != null ? desc.manaCostModifier.create() : null;
+		}
+
+		@Override
+		public Prototype clone() {
+			return (Prototype) super.clone();
+		}
+
+	}
+
+	private Prototype prototype;
+	private boolean prototypeShared;
 	private CardLocation location;
-	private BattlecryDesc battlecry;
-	private ValueProvider manaCostModifier;
-	private final String cardId;
 
 	public Card(CardDesc desc) {
-		cardId = desc.id;
+		prototype = new Prototype(desc);
 		setName(desc.name);
 		setDescription(desc.description);
 		setCollectible(desc.collectible);
-		cardType = desc.type;
-		cardSet = desc.set;
-		rarity = desc.rarity;
-		heroClass = desc.heroClass;
-		if (desc.heroClasses != null) {
-			heroClasses = desc.heroClasses;
-		}
 
 		setAttribute(Attribute.BASE_MANA_COST, desc.baseManaCost);
 		if (desc.attributes != null) {
-			attributes.putAll(desc.attributes);
-		}
-
-		if (desc.manaCostModifier != null) {
-			manaCostModifier = desc.manaCostModifier.create();
+			for (Map.Entry<Attribute, Object> entry : desc.attributes.entrySet()) {
+				setAttribute(entry.getKey(), entry.getValue());
+			}
 		}
 
 		if (desc.passiveTrigger != null) {
-			attributes.put(Attribute.PASSIVE_TRIGGER, desc.passiveTrigger);
+			setAttribute(Attribute.PASSIVE_TRIGGER, desc.passiveTrigger);
 		}
 
 		if (desc.deckTrigger != null) {
-			attributes.put(Attribute.DECK_TRIGGER, desc.deckTrigger);
+			setAttribute(Attribute.DECK_TRIGGER, desc.deckTrigger);
 		}
 	}
 
 	@Override
 	public Card clone() {
 		Card clone = (Card) super.clone();
-		clone.attributes = new EnumMap<>(getAttributes());
+		// the prototype is shared until either side changes it
+		prototypeShared = true;
+		clone.prototypeShared = true;
 		return clone;
 	}
 
@@ -92,11 +115,11 @@ public abstract class Card extends Entity {
 	}
 
 	public BattlecryDesc getBattlecry() {
-		return battlecry;
+		return prototype.battlecry;
 	}
 
 	public String getCardId() {
-		return cardId;
+		return prototype.cardId;
 	}
 
 	public CardReference getCardReference() {
@@ -104,19 +127,19 @@ public abstract class Card extends Entity {
 	}
 
 	public CardSet getCardSet() {
-		return cardSet;
+		return prototype.cardSet;
 	}
 
 	public CardType getCardType() {
-		return cardType;
+		return prototype.cardType;
 	}
 
 	public HeroClass getHeroClass() {
-		return heroClass;
+		return prototype.heroClass;
 	}
 
 	public HeroClass[] getHeroClasses() {
-		return heroClasses;
+		return prototype.heroClasses;
 	}
 
 	public Card getCopy() {
@@ -130,7 +153,7 @@ public abstract class Card extends Entity {
 	}
 
 	public String getDescription() {
-		return description;
+		return prototype.description;
 	}
 
 	@Override
@@ -144,22 +167,39 @@ public abstract class Card extends Entity {
 
 	public int getManaCost(GameContext context, Player player) {
 		int actualManaCost = getBaseManaCost();
-		if (manaCostModifier != null) {
-			actualManaCost -= manaCostModifier.getValue(context, player, null, this);
+		if (prototype.manaCostModifier != null) {
+			actualManaCost -= prototype.manaCostModifier.getValue(context, player, null, this);
 		}
 		return actualManaCost;
 	}
 
+	private Prototype getWritablePrototype() {
+		if (prototypeShared) {
+			prototype = prototype.clone();
+			prototypeShared = false;
+		}
+		return prototype;
+	}
+
 	public Rarity getRarity() {
-		return rarity;
+		return prototype.rarity;
 	}
 
 	public Race getRace() {
 		return hasAttribute(Attribute.RACE) ? (Race) getAttribute(Attribute.RACE) : Race.NONE;
 	}
 
+	@Override
+	public Card getSnapshot() {
+		return (Card) super.getSnapshot();
+	}
+
 	public boolean hasBattlecry() {
-		return this.battlecry != null;
+		return prototype.battlecry != null;
+	}
+
+	public boolean hasDynamicManaCost() {
+		return prototype.manaCostModifier != null;
 	}
 
 	public boolean hasHeroClass(HeroClass heroClass) {
@@ -176,7 +216,13 @@ public abstract class Card extends Entity {
 	}
 
 	public boolean isCollectible() {
-		return collectible;
+		return prototype.collectible;
+	}
+
+	@Override
+	protected boolean isSnapshotOf(Entity entity) {
+		Card card = (Card) entity;
+		return super.isSnapshotOf(entity) && prototype == card.prototype && location == card.location;
 	}
 
 	public boolean matchesFilter(String filter) {
@@ -252,18 +298,22 @@ public abstract class Card extends Entity {
 	public abstract PlayCardAction play();
 
 	public void setBattlecry(BattlecryDesc battlecry) {
-		this.battlecry = battlecry;
+		getWritablePrototype().battlecry = battlecry;
 	}
 
 	public void setCollectible(boolean collectible) {
-		this.collectible = collectible;
+		getWritablePrototype().collectible = collectible;
 	}
 
 	public void setDescription(String description) {
-		this.description = description;
+		getWritablePrototype().description = description;
 	}
 
 	public void setLocation(CardLocation location) {
+		if (this.location != location) {
+			CardLocation oldLocation = this.location;
+			UndoJournal.record(() -> this.location = oldLocation);
+		}
 		this.location = location;
 	}
 
@@ -1,13 +1,27 @@
 package net.demilich.metastone.game.cards;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.jsoup.Jsoup;
 import org.jsoup.Connection.Response;
@@ -18,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import net.demilich.metastone.BuildConfig;
 import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.cards.desc.CardDesc;
+import net.demilich.metastone.game.cards.desc.CardDescCache;
 import net.demilich.metastone.game.decks.DeckFormat;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.utils.MetastoneProperties;
@@ -31,41 +46,89 @@ public class CardCatalogue {
 	public static final String LOCAL_CARDS_FOLDER = "../cards/src/main/resources/cards/";
 	public static final String CARDS_FOLDER_PATH = UserHomeMetastone.getPath() + File.separator + CARDS_FOLDER;
 	public static final String CARDS_COPIED_PROPERTY = "cardRevision";
+	public static final String CARDS_CACHE_PATH = UserHomeMetastone.getPath() + File.separator + "cards.bin";
+	public static final String LOCAL_CARDS_CACHE_PATH = System.getProperty("java.io.tmpdir") + File.separator + "metastone-cards-"
+			+ BuildConfig.VERSION + ".bin";
 
 	private static Logger logger = LoggerFactory.getLogger(CardCatalogue.class);
 
-	private final static CardCollection cards = new CardCollection();
+	private static class ParseResult {
+
+		private final CardDesc cardDesc;
+		private final Exception error;
+
+		private ParseResult(CardDesc cardDesc, Exception error) {
+			this.cardDesc = cardDesc;
+			this.error = error;
+		}
+
+	}
+
+	/**
+	 * Immutable view of the loaded cards, indexed by lower case id and by
+	 * lower case name of collectible cards. Loading more cards replaces the
+	 * snapshot as a whole, so readers never see a partially built index.
+	 * Card pools are built on demand and cached along with the snapshot.
+	 */
+	private static class Snapshot {
+
+		private final List<Card> cards;
+		private final Map<String, Card> cardsById = new HashMap<>();
+		private final Map<String, Card> collectibleCardsByName = new HashMap<>();
+		private final Map<Set<CardSet>, Map<CardPool.Query, CardPool>> pools = new ConcurrentHashMap<>();
+
+		private Snapshot(List<Card> cards) {
+			this.cards = Collections.unmodifiableList(cards);
+			for (Card card : cards) {
+				if (card.getCardId() != null) {
+					cardsById.putIfAbsent(normalize(card.getCardId()), card);
+				}
+				if (card.isCollectible() && card.getName() != null) {
+					collectibleCardsByName.putIfAbsent(normalize(card.getName()), card);
+				}
+			}
+		}
+
+	}
+
+	private static volatile Snapshot snapshot = new Snapshot(new ArrayList<Card>());
 
 	public static void add(Card card) {
-		cards.add(card);
+		addAll(Collections.singletonList(card));
+	}
+
+	private static synchronized void addAll(Collection<Card> cards) {
+		List<Card> allCards = new ArrayList<Card>(snapshot.cards);
+		allCards.addAll(cards);
+		snapshot = new Snapshot(allCards);
 	}
 
 	public static CardCollection getAll() {
 		CardCollection result = new CardCollection();
-		for (Card card : cards) {
+		for (Card card : snapshot.cards) {
 			result.add(card);
 		}
 		return result;
 	}
 
 	public static Card getCardById(String id) {
-		for (Card card : cards) {
-			if (card.getCardId() != null && card.getCardId().equalsIgnoreCase(id)) {
-				return card.clone();
-			}
-		}
-
-		return null;
+		Card card = getPrototypeById(id);
+		return card != null ? card.clone() : null;
 	}
 
 	public static Card getCardByName(String name) {
+		Card card = name != null ? snapshot.collectibleCardsByName.get(normalize(name)) : null;
+		return card != null ? card.clone() : null;
+	}
+
+	private static CardPool createPool(List<Card> cards, Set<CardSet> cardSets, CardPool.Query query) {
+		List<Card> result = new ArrayList<Card>();
 		for (Card card : cards) {
-			if (card.isCollectible() && card.getName().equals(name)) {
-				return card.clone();
+			if (cardSets.contains(card.getCardSet()) && query.matches(card)) {
+				result.add(card);
 			}
 		}
-
-		return null;
+		return new CardPool(result.toArray(new Card[result.size()]));
 	}
 	
 	public static Card getCardByBlizzardId(String id) throws IOException{
@@ -80,6 +143,25 @@ public class CardCatalogue {
 		return getCardByName(doc.getElementsByTag("h3").get(0).text());
 	}
 
+	/**
+	 * Returns the card with the given id without copying it. The card is
+	 * shared by all callers and must not be modified; use
+	 * {@link #getCardById(String)} for cards which take part in a game.
+	 */
+	public static Card getPrototypeById(String id) {
+		return id != null ? snapshot.cardsById.get(normalize(id)) : null;
+	}
+
+	public static CardPool getPool(DeckFormat deckFormat, CardPool.Query query) {
+		Set<CardSet> cardSets = deckFormat != null ? EnumSet.noneOf(CardSet.class) : EnumSet.allOf(CardSet.class);
+		if (deckFormat != null) {
+			cardSets.addAll(deckFormat.getCardSets());
+		}
+		Snapshot current = snapshot;
+		Map<CardPool.Query, CardPool> pools = current.pools.computeIfAbsent(cardSets, key -> new ConcurrentHashMap<>());
+		return pools.computeIfAbsent(query, key -> createPool(current.cards, cardSets, key));
+	}
+
 	public static CardCollection getHeroes() {
 		return query(null, card -> card.isCollectible() && card.getCardType() == CardType.HERO);
 	}
@@ -106,38 +188,15 @@ public class CardCatalogue {
 
 	public static CardCollection query(DeckFormat deckFormat, CardType cardType, Rarity rarity, HeroClass heroClass, Attribute tag) {
 		CardCollection result = new CardCollection();
-		for (Card card : cards) {
-			if (!deckFormat.isInFormat(card)) {
-				continue;
-			}
-			if (!card.isCollectible()) {
-				continue;
-			}
-			if (cardType != null && !card.getCardType().isCardType(cardType)) {
-				continue;
-			}
-			// per default, do not include heroes or hero powers
-			if (card.getCardType().isCardType(CardType.HERO_POWER) || card.getCardType().isCardType(CardType.HERO)) {
-				continue;
-			}
-			if (rarity != null && !card.getRarity().isRarity(rarity)) {
-				continue;
-			}
-			if (heroClass != null && !card.hasHeroClass(heroClass)) {
-				continue;
-			}
-			if (tag != null && !card.hasAttribute(tag)) {
-				continue;
-			}
+		for (Card card : getPool(deckFormat, new CardPool.Query(cardType, rarity, heroClass, null, null, tag))) {
 			result.add(card.clone());
 		}
-
 		return result;
 	}
 
 	public static CardCollection query(DeckFormat deckFormat, Predicate<Card> filter) {
 		CardCollection result = new CardCollection();
-		for (Card card : cards) {
+		for (Card card : snapshot.cards) {
 			if (deckFormat != null && !deckFormat.isInFormat(card)) {
 				continue;
 			}
@@ -150,44 +209,94 @@ public class CardCatalogue {
 	
 	public static void loadLocalCards() throws IOException, URISyntaxException, CardParseException {
 		// load cards from ~/metastone/cards on the file system
-		Collection<ResourceInputStream> inputStreams = ResourceLoader.loadJsonInputStreams(CARDS_FOLDER, false);
-		loadCards(inputStreams);
+		List<Path> cardFiles = ResourceLoader.loadJsonPaths(CARDS_FOLDER, false);
+		loadCards(cardFiles, false, Paths.get(LOCAL_CARDS_CACHE_PATH));
 	}
 	
 	public static void loadCards() throws IOException, URISyntaxException, CardParseException {
 		// load cards from ~/metastone/cards on the file system
-		Collection<ResourceInputStream> inputStreams = ResourceLoader.loadJsonInputStreams(CARDS_FOLDER_PATH, true);
-		loadCards(inputStreams);
+		List<Path> cardFiles = ResourceLoader.loadJsonPaths(CARDS_FOLDER_PATH, true);
+		loadCards(cardFiles, true, Paths.get(CARDS_CACHE_PATH));
 	}
 
 	
-	private static void loadCards(Collection<ResourceInputStream> inputStreams) throws IOException, URISyntaxException, CardParseException {
-		Map<String, CardDesc> cardDesc = new HashMap<String, CardDesc>();
+	private static void loadCards(List<Path> cardFiles, boolean fromFileSystem, Path cacheFile) throws IOException, CardParseException {
+		List<byte[]> contents = readCardFiles(cardFiles);
+		CardDescCache cache = new CardDescCache(cacheFile, CardDescCache.hash(cardFiles, contents));
+		List<CardDesc> cachedCardDesc = cache.read();
+		if (cachedCardDesc != null) {
+			logger.debug("Loading {} cards from {}", cachedCardDesc.size(), cacheFile);
+			addAll(createInstances(cachedCardDesc));
+			return;
+		}
+
+		List<ParseResult> results = parseCardFiles(cardFiles, contents, fromFileSystem);
+		// merge in file order, so the catalogue does not depend on which
+		// worker finished first
+		Map<String, CardDesc> cardDesc = new LinkedHashMap<String, CardDesc>();
 		ArrayList<String> badCards = new ArrayList<>();
-		CardParser cardParser = new CardParser();
-		for (ResourceInputStream resourceInputStream : inputStreams) {
-			try {
-				CardDesc desc = cardParser.parseCard(resourceInputStream);
-				if (cardDesc.containsKey(desc.id)) {
-					logger.error("Card id {} is duplicated!", desc.id);
-				}
-				cardDesc.put(desc.id, desc);
-			} catch (Exception e) {
-				//logger.error("Error parsing card '{}'", resourceInputStream.fileName);
-				logger.error(e.toString());
-				badCards.add(resourceInputStream.fileName);
+		for (int i = 0; i < results.size(); i++) {
+			ParseResult result = results.get(i);
+			String fileName = cardFiles.get(i).getFileName().toString();
+			if (result.error != null) {
+				logger.error(result.error.toString());
+				badCards.add(fileName);
+			} else if (cardDesc.containsKey(normalize(result.cardDesc.id))) {
+				logger.error("Card id {} is duplicated by {}", result.cardDesc.id, cardFiles.get(i));
+				badCards.add(fileName);
+			} else {
+				cardDesc.put(normalize(result.cardDesc.id), result.cardDesc);
 			}
 		}
 
-		for (CardDesc desc : cardDesc.values()) {
-			Card instance = desc.createInstance();
-			CardCatalogue.add(instance);
-			logger.debug("Adding {} to CardCatalogue", instance);
-		}
+		addAll(createInstances(cardDesc.values()));
 		
 		if (!badCards.isEmpty()) {
 			throw new CardParseException(badCards);
 		}
+		cache.write(cardDesc.values());
+	}
+
+	private static List<Card> createInstances(Collection<CardDesc> cardDesc) {
+		List<Card> instances = new ArrayList<Card>();
+		for (CardDesc desc : cardDesc) {
+			Card instance = desc.createInstance();
+			instances.add(instance);
+			logger.debug("Adding {} to CardCatalogue", instance);
+		}
+		return instances;
+	}
+
+	private static String normalize(String key) {
+		return key.toLowerCase(Locale.ENGLISH);
+	}
+
+	// parsers are not thread safe, so every worker gets its own
+	private static List<ParseResult> parseCardFiles(List<Path> cardFiles, List<byte[]> contents, boolean fromFileSystem) {
+		ThreadLocal<CardParser> cardParsers = ThreadLocal.withInitial(CardParser::new);
+		return IntStream.range(0, cardFiles.size()).parallel().mapToObj(i -> {
+			String fileName = cardFiles.get(i).getFileName().toString();
+			ResourceInputStream resourceInputStream = new ResourceInputStream(fileName, new ByteArrayInputStream(contents.get(i)), fromFileSystem);
+			try {
+				return new ParseResult(cardParsers.get().parseCard(resourceInputStream), null);
+			} catch (Exception e) {
+				return new ParseResult(null, e);
+			}
+		}).collect(Collectors.toList());
+	}
+
+	private static List<byte[]> readCardFiles(List<Path> cardFiles) throws IOException {
+		try {
+			return cardFiles.parallelStream().map(path -> {
+				try {
+					return Files.readAllBytes(path);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
 	}
 
 	public static void copyCardsFromResources() throws IOException, URISyntaxException {
@@ -1,16 +1,35 @@
 package net.demilich.metastone.game.cards;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
 
+import net.demilich.metastone.game.logic.EntityIndex;
+import net.demilich.metastone.game.logic.EntityZone;
+import net.demilich.metastone.game.logic.ZobristKey;
+
+/**
+ * The cards of a deck or hand. Cloning a collection does not clone its cards;
+ * the clone holds shared snapshots of them instead (see
+ * {@link Card#getSnapshot()}), which are replaced by private copies once they
+ * are handed out, e.g. when a card is drawn or inspected. Cards which are
+ * never touched in a cloned game, like most of a deck, are never copied.
+ */
 public class CardCollection implements Iterable<Card>, Cloneable {
 
-	private List<Card> cards = new ArrayList<Card>();
+	private static class CardZone extends EntityZone<Card> {
+
+		@Override
+		protected Card peek(int index) {
+			return super.peek(index);
+		}
+
+	}
+
+	private CardZone cards = new CardZone();
 
 	public CardCollection() {
 
@@ -21,9 +40,7 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 	}
 
 	public void addAll(CardCollection cardCollection) {
-		for (Card card : cardCollection) {
-			cards.add(card.clone());
-		}
+		cards.addSnapshots(cardCollection.cards);
 	}
 	
 	public void addRandomly(Card card) {
@@ -33,29 +50,39 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 
 	public CardCollection clone() {
 		CardCollection clone = new CardCollection();
-		for (Card card : cards) {
-			clone.add(card.clone());
-		}
-
+		clone.addAll(this);
 		return clone;
 	}
 
 	public boolean contains(Card card) {
-		return cards.contains(card);
+		return indexOf(card) != -1;
 	}
 	
 	public boolean containsCard(Card card) {
 		if (card == null) {
 			return false;
 		}
-		for (Card other : cards) {
-			if (other.getCardId().equals(card.getCardId())) {
+		for (int i = 0; i < cards.size(); i++) {
+			if (cards.peek(i).getCardId().equals(card.getCardId())) {
 				return true;
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * @return the card with the given entity id, or <code>null</code> if
+	 *         there is none
+	 */
+	public Card find(int id) {
+		for (int i = 0; i < cards.size(); i++) {
+			if (cards.peek(i).getId() == id) {
+				return cards.get(i);
+			}
+		}
+		return null;
+	}
+
 	public Card get(int index) {
 		return cards.get(index);
 	}
@@ -72,27 +99,37 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 	}
 
 	public Card getRandomOfType(CardType cardType) {
-		List<Card> relevantCards = new ArrayList<>();
-		for (Card card : cards) {
-			if (card.getCardType().isCardType(cardType)) {
-				relevantCards.add(card);
+		List<Integer> relevantCards = new ArrayList<>();
+		for (int i = 0; i < cards.size(); i++) {
+			if (cards.peek(i).getCardType().isCardType(cardType)) {
+				relevantCards.add(i);
 			}
 		}
 		if (relevantCards.isEmpty()) {
 			return null;
 		}
-		return relevantCards.get(ThreadLocalRandom.current().nextInt(relevantCards.size()));
+		return cards.get(relevantCards.get(ThreadLocalRandom.current().nextInt(relevantCards.size())));
 	}
 
 	public boolean hasCardOfType(CardType cardType) {
-		for (Card card : cards) {
-			if (card.getCardType().isCardType(cardType)) {
+		for (int i = 0; i < cards.size(); i++) {
+			if (cards.peek(i).getCardType().isCardType(cardType)) {
 				return true;
 			}
 		}
 		return false;
 	}
 
+	private int indexOf(Card card) {
+		// cards handed out are never snapshots, so identity is enough
+		for (int i = 0; i < cards.size(); i++) {
+			if (cards.peek(i) == card) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	public boolean isEmpty() {
 		return cards.isEmpty();
 	}
@@ -107,7 +144,12 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 	}
 
 	public boolean remove(Card card) {
-		return cards.remove(card);
+		int index = indexOf(card);
+		if (index == -1) {
+			return false;
+		}
+		cards.remove(index);
+		return true;
 	}
 
 	public void removeAll() {
@@ -119,11 +161,13 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 	}
 
 	public Card removeFirst() {
-		return cards.remove(0);
+		Card card = cards.get(0);
+		cards.remove(0);
+		return card;
 	}
 
 	public boolean replace(Card oldCard, Card newCard) {
-		int index = cards.indexOf(oldCard);
+		int index = indexOf(oldCard);
 		if (index != -1) {
 			cards.set(index, newCard);
 			return true;
@@ -131,8 +175,20 @@ public class CardCollection implements Iterable<Card>, Cloneable {
 		return false;
 	}
 
+	public void setEntityIndex(EntityIndex index) {
+		cards.setEntityIndex(index);
+	}
+
+	public void setZobristKey(ZobristKey key, int zone, int owner) {
+		cards.setZobristKey(key, zone, owner);
+	}
+
 	public void shuffle() {
-		Collections.shuffle(cards);
+		// swaps the stored cards, so snapshots are not copied
+		for (int i = cards.size() - 1; i > 0; i--) {
+			int j = ThreadLocalRandom.current().nextInt(i + 1);
+			cards.set(i, cards.set(j, cards.peek(i)));
+		}
 	}
 
 	public void sortByManaCost() {
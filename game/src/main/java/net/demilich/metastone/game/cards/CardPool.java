@@ -0,0 +1,148 @@
+package net.demilich.metastone.game.cards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import net.demilich.metastone.game.Attribute;
+import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.entities.minions.Race;
+
+/**
+ * Immutable list of catalogue cards, used to pick random cards without
+ * filtering the whole catalogue each time. Pools hold the shared cards of the
+ * {@link CardCatalogue}; a card has to be copied before it enters a game.
+ */
+public class CardPool implements Iterable<Card> {
+
+	/**
+	 * Canonical description of a pool. Like
+	 * {@link CardCatalogue#query(net.demilich.metastone.game.decks.DeckFormat)},
+	 * pools only contain collectible cards and never heroes or hero powers.
+	 * Criteria which are <code>null</code> match any card.
+	 */
+	public static class Query {
+
+		private final CardType cardType;
+		private final Rarity rarity;
+		private final HeroClass heroClass;
+		private final Race race;
+		private final Integer manaCost;
+		private final Attribute attribute;
+
+		public Query(CardType cardType, Rarity rarity, HeroClass heroClass, Race race, Integer manaCost, Attribute attribute) {
+			this.cardType = cardType;
+			this.rarity = rarity;
+			this.heroClass = heroClass;
+			this.race = race;
+			this.manaCost = manaCost;
+			this.attribute = attribute;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Query)) {
+				return false;
+			}
+			Query other = (Query) obj;
+			return cardType == other.cardType && rarity == other.rarity && heroClass == other.heroClass && race == other.race
+					&& Objects.equals(manaCost, other.manaCost) && attribute == other.attribute;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(cardType, rarity, heroClass, race, manaCost, attribute);
+		}
+
+		public boolean matches(Card card) {
+			if (!card.isCollectible()) {
+				return false;
+			}
+			if (cardType != null && !card.getCardType().isCardType(cardType)) {
+				return false;
+			}
+			if (card.getCardType().isCardType(CardType.HERO_POWER) || card.getCardType().isCardType(CardType.HERO)) {
+				return false;
+			}
+			if (rarity != null && !card.getRarity().isRarity(rarity)) {
+				return false;
+			}
+			if (heroClass != null && !card.hasHeroClass(heroClass)) {
+				return false;
+			}
+			if (race != null && race != card.getAttribute(Attribute.RACE)) {
+				return false;
+			}
+			if (manaCost != null && manaCost != card.getBaseManaCost()) {
+				return false;
+			}
+			if (attribute != null && !card.hasAttribute(attribute)) {
+				return false;
+			}
+			return true;
+		}
+
+	}
+
+	public static final CardPool EMPTY = new CardPool(new Card[0]);
+
+	private final Card[] cards;
+
+	CardPool(Card[] cards) {
+		this.cards = cards;
+	}
+
+	/**
+	 * Returns the cards of this pool which match the given filter.
+	 */
+	public CardPool filter(Predicate<Card> filter) {
+		List<Card> result = new ArrayList<Card>();
+		for (Card card : cards) {
+			if (filter.test(card)) {
+				result.add(card);
+			}
+		}
+		return result.size() == cards.length ? this : new CardPool(result.toArray(new Card[result.size()]));
+	}
+
+	public Card get(int index) {
+		return cards[index];
+	}
+
+	public int getCount() {
+		return cards.length;
+	}
+
+	public Card getRandom() {
+		if (cards.length == 0) {
+			return null;
+		}
+		return cards[ThreadLocalRandom.current().nextInt(cards.length)];
+	}
+
+	public boolean isEmpty() {
+		return cards.length == 0;
+	}
+
+	@Override
+	public Iterator<Card> iterator() {
+		return Arrays.asList(cards).iterator();
+	}
+
+	/**
+	 * Returns a modifiable collection of the cards in this pool. The cards
+	 * themselves are not copied.
+	 */
+	public CardCollection toCollection() {
+		CardCollection result = new CardCollection();
+		for (Card card : cards) {
+			result.add(card);
+		}
+		return result;
+	}
+
+}
@@ -6,6 +6,7 @@ import net.demilich.metastone.game.actions.PlayCardAction;
 import net.demilich.metastone.game.actions.PlaySpellCardAction;
 import net.demilich.metastone.game.cards.desc.SpellCardDesc;
 import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.logic.UndoJournal;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.spells.desc.condition.Condition;
 import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
@@ -58,7 +59,6 @@ public class SpellCard extends Card {
 		if (spell == null) {
 			throw new RuntimeException("Spell is NULL for SpellCard " + getName());
 		}
-		clone.spell = spell.clone();
 		clone.condition = condition;
 		return clone;
 	}
@@ -71,12 +71,22 @@ public class SpellCard extends Card {
 		return targetRequirement;
 	}
 
+	@Override
+	protected boolean isSnapshotOf(Entity entity) {
+		SpellCard card = (SpellCard) entity;
+		return super.isSnapshotOf(entity) && spell == card.spell && targetRequirement == card.targetRequirement;
+	}
+
 	@Override
 	public PlayCardAction play() {
 		return new PlaySpellCardAction(getSpell(), this, getTargetRequirement());
 	}
 
 	public void setSpell(SpellDesc spell) {
+		if (this.spell != spell) {
+			SpellDesc oldSpell = this.spell;
+			UndoJournal.record(() -> this.spell = oldSpell);
+		}
 		this.spell = spell;
 	}
 
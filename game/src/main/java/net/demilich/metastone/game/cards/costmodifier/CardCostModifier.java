@@ -180,6 +180,15 @@ public class CardCostModifier extends CustomCloneable implements IGameEventListe
 		return modifiedManaCost;
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		CardCostModifier state = (CardCostModifier) snapshot;
+		expired = state.expired;
+		owner = state.owner;
+		hostReference = state.hostReference;
+		expirationTrigger = state.expirationTrigger;
+	}
+
 	@Override
 	public void setHost(Entity host) {
 		hostReference = host.getReference();
@@ -5,6 +5,7 @@ import net.demilich.metastone.game.events.GameEvent;
 import net.demilich.metastone.game.events.GameEventType;
 import net.demilich.metastone.game.spells.desc.manamodifier.CardCostModifierDesc;
 import net.demilich.metastone.game.spells.trigger.GameEventTrigger;
+import net.demilich.metastone.game.spells.trigger.IGameEventListener;
 import net.demilich.metastone.game.spells.trigger.TurnStartTrigger;
 
 public class OneTurnCostModifier extends CardCostModifier {
@@ -46,6 +47,12 @@ public class OneTurnCostModifier extends CardCostModifier {
 		return true;
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		super.restoreState(snapshot);
+		turnStartTrigger = ((OneTurnCostModifier) snapshot).turnStartTrigger;
+	}
+
 	@Override
 	public void setOwner(int playerIndex) {
 		super.setOwner(playerIndex);
@@ -8,6 +8,7 @@ import net.demilich.metastone.game.spells.desc.manamodifier.CardCostModifierArg;
 import net.demilich.metastone.game.spells.desc.manamodifier.CardCostModifierDesc;
 import net.demilich.metastone.game.spells.desc.trigger.EventTriggerDesc;
 import net.demilich.metastone.game.spells.trigger.GameEventTrigger;
+import net.demilich.metastone.game.spells.trigger.IGameEventListener;
 
 public class ToggleCostModifier extends CardCostModifier {
 
@@ -55,6 +56,15 @@ public class ToggleCostModifier extends CardCostModifier {
 		}
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		super.restoreState(snapshot);
+		ToggleCostModifier state = (ToggleCostModifier) snapshot;
+		toggleOnTrigger = state.toggleOnTrigger;
+		toggleOffTrigger = state.toggleOffTrigger;
+		ready = state.ready;
+	}
+
 	@Override
 	public void setOwner(int playerIndex) {
 		super.setOwner(playerIndex);
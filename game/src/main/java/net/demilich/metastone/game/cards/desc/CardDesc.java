@@ -1,5 +1,6 @@
 package net.demilich.metastone.game.cards.desc;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import net.demilich.metastone.game.Attribute;
@@ -11,7 +12,7 @@ import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.spells.desc.trigger.TriggerDesc;
 import net.demilich.metastone.game.spells.desc.valueprovider.ValueProviderDesc;
 
-public abstract class CardDesc {
+public abstract class CardDesc implements Serializable {
 
 	public String id;
 	public String name;
@@ -0,0 +1,317 @@
+package net.demilich.metastone.game.cards.desc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.demilich.metastone.BuildConfig;
+import net.demilich.metastone.game.cards.CardParser;
+import net.demilich.metastone.game.spells.desc.condition.Condition;
+import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
+import net.demilich.metastone.game.spells.desc.source.CardSource;
+import net.demilich.metastone.game.spells.desc.trigger.EventTriggerDeserializer;
+import net.demilich.metastone.game.spells.desc.valueprovider.ValueProvider;
+import net.demilich.metastone.game.targeting.EntityReference;
+
+/**
+ * Keeps the parsed card descriptions in a single binary file, so they do not
+ * have to be parsed from json again as long as the card files are unchanged.
+ * The file starts with a hash over the names and contents of the card files
+ * it was created from, the build version and the parser classes; a cache
+ * with another hash, or one which cannot be read with the current classes,
+ * is ignored.
+ * <p>
+ * Descriptions, and the filters, conditions, value providers and card sources
+ * created from them, are stored as their arguments and created again when the
+ * cache is read.
+ */
+public class CardDescCache {
+
+	private static class DescProxy implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Class<?> descClass;
+		private final Map<?, Object> arguments;
+		private final boolean created;
+
+		private DescProxy(Desc<?> desc, boolean created) {
+			this.descClass = desc.getClass();
+			this.arguments = desc.arguments;
+			this.created = created;
+		}
+
+		private Object resolve() throws ObjectStreamException {
+			try {
+				Object desc = descClass.getConstructor(Map.class).newInstance(arguments);
+				return created ? descClass.getMethod("create").invoke(desc) : desc;
+			} catch (ReflectiveOperationException e) {
+				throw new InvalidCacheException(descClass.getName());
+			}
+		}
+
+	}
+
+	private static class EntityReferenceProxy implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final Map<Integer, EntityReference> CONSTANTS = new HashMap<>();
+
+		static {
+			for (Field field : EntityReference.class.getFields()) {
+				if (Modifier.isStatic(field.getModifiers()) && field.getType() == EntityReference.class) {
+					try {
+						EntityReference reference = (EntityReference) field.get(null);
+						CONSTANTS.put(reference.getId(), reference);
+					} catch (IllegalAccessException e) {
+						// constants missing here would be read back as new references
+						throw new ExceptionInInitializerError(e);
+					}
+				}
+			}
+		}
+
+		private final int key;
+
+		private EntityReferenceProxy(EntityReference reference) {
+			this.key = reference.getId();
+		}
+
+		private EntityReference resolve() {
+			EntityReference reference = CONSTANTS.get(key);
+			return reference != null ? reference : new EntityReference(key);
+		}
+
+	}
+
+	private static class InvalidCacheException extends ObjectStreamException {
+
+		private static final long serialVersionUID = 1L;
+
+		private InvalidCacheException(String message) {
+			super(message);
+		}
+
+	}
+
+	private static class CacheInputStream extends ObjectInputStream {
+
+		private CacheInputStream(InputStream in) throws IOException {
+			super(in);
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof DescProxy) {
+				return ((DescProxy) obj).resolve();
+			} else if (obj instanceof EntityReferenceProxy) {
+				return ((EntityReferenceProxy) obj).resolve();
+			}
+			return obj;
+		}
+
+	}
+
+	private static class CacheOutputStream extends ObjectOutputStream {
+
+		private CacheOutputStream(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof Desc) {
+				if (((Desc<?>) obj).arguments == null) {
+					// spell descriptions derived with addArg or removeArg
+					throw new NotSerializableException(obj.getClass().getName());
+				}
+				return new DescProxy((Desc<?>) obj, false);
+			} else if (obj instanceof EntityFilter) {
+				return new DescProxy(((EntityFilter) obj).getDesc(), true);
+			} else if (obj instanceof Condition) {
+				return new DescProxy(((Condition) obj).getDesc(), true);
+			} else if (obj instanceof ValueProvider) {
+				return new DescProxy(((ValueProvider) obj).getDesc(), true);
+			} else if (obj instanceof CardSource) {
+				return new DescProxy(((CardSource) obj).getDesc(), true);
+			} else if (obj instanceof EntityReference) {
+				return new EntityReferenceProxy((EntityReference) obj);
+			}
+			return obj;
+		}
+
+	}
+
+	// change whenever the way descriptions are stored changes
+	private static final int FORMAT_VERSION = 1;
+
+	// classes which decide what is parsed from the card files; the same card
+	// files parsed by other versions of them may give other descriptions
+	private static final Class<?>[] PARSER_CLASSES = { CardParser.class, CardDescCache.class, Desc.class, ParseUtils.class,
+			ParseValueType.class, AttributeDeserializer.class, AuraDeserializer.class, CardCostModifierDeserializer.class,
+			ConditionDeserializer.class, EventTriggerDeserializer.class, FilterDeserializer.class, SourceDeserializer.class,
+			SpellDeserializer.class, ValueProviderDeserializer.class, CardDesc.class, ActorCardDesc.class, SummonCardDesc.class,
+			ChooseBattlecryCardDesc.class, ChooseOneCardDesc.class, HeroCardDesc.class, HeroPowerCardDesc.class,
+			MinionCardDesc.class, PermanentCardDesc.class, QuestCardDesc.class, SecretCardDesc.class, SpellCardDesc.class,
+			WeaponCardDesc.class };
+
+	private static Logger logger = LoggerFactory.getLogger(CardDescCache.class);
+
+	private static byte[] codeFingerprint;
+
+	private final Path cacheFile;
+	private final byte[] hash;
+
+	/**
+	 * @param cacheFile
+	 *            the file to read the cache from and to write it to
+	 * @param hash
+	 *            the hash of the card files, see {@link #hash(List, List)}
+	 */
+	public CardDescCache(Path cacheFile, byte[] hash) {
+		this.cacheFile = cacheFile;
+		this.hash = hash;
+	}
+
+	private static synchronized byte[] getCodeFingerprint() throws NoSuchAlgorithmException, IOException {
+		if (codeFingerprint == null) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(BuildConfig.VERSION.getBytes("UTF-8"));
+			for (Class<?> parserClass : PARSER_CLASSES) {
+				digest.update(parserClass.getName().getBytes("UTF-8"));
+				try (InputStream in = parserClass.getResourceAsStream(parserClass.getSimpleName() + ".class")) {
+					if (in == null) {
+						logger.warn("Class file of {} not found, card cache is only keyed by the build version", parserClass.getName());
+						continue;
+					}
+					byte[] buffer = new byte[8192];
+					for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+						digest.update(buffer, 0, read);
+					}
+				}
+			}
+			codeFingerprint = digest.digest();
+		}
+		return codeFingerprint;
+	}
+
+	/**
+	 * Hashes the names and contents of the card files in the given order,
+	 * together with the build version and the class files of the parser.
+	 */
+	public static byte[] hash(List<Path> cardFiles, List<byte[]> contents) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(getCodeFingerprint());
+			for (int i = 0; i < cardFiles.size(); i++) {
+				digest.update(cardFiles.get(i).getFileName().toString().getBytes("UTF-8"));
+				digest.update(contents.get(i));
+			}
+			return digest.digest();
+		} catch (NoSuchAlgorithmException | IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the cached card descriptions in the order they were written,
+	 *         or <code>null</code> if there is no usable cache for the card
+	 *         files
+	 */
+	@SuppressWarnings("unchecked")
+	public List<CardDesc> read() {
+		byte[] data;
+		try {
+			data = Files.readAllBytes(cacheFile);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			logger.warn("Card cache {} could not be read: {}", cacheFile, e.toString());
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			if (in.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+			byte[] cachedHash = new byte[in.readUnsignedByte()];
+			in.readFully(cachedHash);
+			if (!Arrays.equals(cachedHash, hash)) {
+				logger.info("Card files have changed since {} was written", cacheFile);
+				return null;
+			}
+			return (List<CardDesc>) new CacheInputStream(in).readObject();
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			logger.info("Card cache {} is outdated: {}", cacheFile, e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * Replaces the cache file with the given card descriptions. Failures are
+	 * logged only, as the cards can still be parsed from json next time.
+	 */
+	public void write(Collection<CardDesc> cardDescs) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeByte(hash.length);
+			out.write(hash);
+			ObjectOutputStream objectOut = new CacheOutputStream(out);
+			objectOut.writeObject(new ArrayList<>(cardDescs));
+			objectOut.flush();
+		} catch (IOException e) {
+			logger.warn("Card cache {} could not be written: {}", cacheFile, e.toString());
+			return;
+		}
+
+		// several processes may load cards at the same time, so the file is
+		// written under another name first and then moved into place
+		Path tempFile = null;
+		try {
+			Path directory = cacheFile.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			tempFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+			Files.write(tempFile, buffer.toByteArray());
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("Card cache {} could not be written: {}", cacheFile, e.toString());
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+}
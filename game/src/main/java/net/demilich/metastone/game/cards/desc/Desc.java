@@ -24,19 +24,19 @@ public class Desc<T> {
 	}
 
 	public boolean getBool(T arg) {
-		return arguments.containsKey(arg) ? (boolean) get(arg) : false;
+		return contains(arg) ? (boolean) get(arg) : false;
 	}
 
 	public int getInt(T arg) {
-		return arguments.containsKey(arg) ? (int) get(arg) : 0;
+		return contains(arg) ? (int) get(arg) : 0;
 	}
 
 	public String getString(T arg) {
-		return arguments.containsKey(arg) ? (String) get(arg) : "";
+		return contains(arg) ? (String) get(arg) : "";
 	}
 	
 	public int getValue(T arg, GameContext context, Player player, Entity target, Entity host, int defaultValue) {
-		Object storedValue = arguments.get(arg);
+		Object storedValue = get(arg);
 		if (storedValue == null) {
 			return defaultValue;
 		}
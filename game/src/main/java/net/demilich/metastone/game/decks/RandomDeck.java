@@ -5,7 +5,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
-import net.demilich.metastone.game.cards.CardType;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.decks.validation.DefaultDeckValidator;
 import net.demilich.metastone.game.decks.validation.IDeckValidator;
@@ -24,12 +24,8 @@ public class RandomDeck extends Deck {
 	public CardCollection getCardsCopy() {
 		Deck copyDeck = new Deck(getHeroClass());
 		IDeckValidator deckValidator = new DefaultDeckValidator();
-		CardCollection classCards = CardCatalogue.query(deckFormat, card -> {
-			return card.isCollectible() && !card.getCardType().isCardType(CardType.HERO) && !card.getCardType().isCardType(CardType.HERO_POWER) && card.hasHeroClass(getHeroClass());
-		});
-		CardCollection neutralCards = CardCatalogue.query(deckFormat, card -> {
-			return card.isCollectible() && !card.getCardType().isCardType(CardType.HERO) && !card.getCardType().isCardType(CardType.HERO_POWER) && card.hasHeroClass(HeroClass.ANY);
-		});
+		CardPool classCards = CardCatalogue.getPool(deckFormat, new CardPool.Query(null, null, getHeroClass(), null, null, null));
+		CardPool neutralCards = CardCatalogue.getPool(deckFormat, new CardPool.Query(null, null, HeroClass.ANY, null, null, null));
 
 		while (!copyDeck.isComplete()) {
 			// random deck consists of roughly 50% class cards and 50% neutral
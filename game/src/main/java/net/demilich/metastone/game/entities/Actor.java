@@ -1,7 +1,6 @@
 package net.demilich.metastone.game.entities;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 
 import net.demilich.metastone.game.Attribute;
@@ -10,13 +9,15 @@ import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.costmodifier.CardCostModifier;
 import net.demilich.metastone.game.entities.minions.Race;
 import net.demilich.metastone.game.logic.GameLogic;
+import net.demilich.metastone.game.logic.JournaledList;
+import net.demilich.metastone.game.logic.UndoJournal;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.spells.trigger.SpellTrigger;
 
 public abstract class Actor extends Entity {
 
 	private Card sourceCard;
-	private List<SpellTrigger> spellTriggers = new ArrayList<SpellTrigger>();
+	private List<SpellTrigger> spellTriggers = new JournaledList<SpellTrigger>();
 	private CardCostModifier cardCostModifier;
 
 	public Actor(Card sourceCard) {
@@ -25,10 +26,14 @@ public abstract class Actor extends Entity {
 	}
 
 	public void addDeathrattle(SpellDesc deathrattleSpell) {
-		if (!hasAttribute(Attribute.DEATHRATTLES)) {
-			setAttribute(Attribute.DEATHRATTLES, new ArrayList<SpellDesc>());
+		// the deathrattle list may be shared with clones of this actor, so
+		// it is never modified in place
+		List<SpellDesc> deathrattles = new ArrayList<SpellDesc>();
+		if (hasAttribute(Attribute.DEATHRATTLES)) {
+			deathrattles.addAll(getDeathrattles());
 		}
-		getDeathrattles().add(deathrattleSpell);
+		deathrattles.add(deathrattleSpell);
+		setAttribute(Attribute.DEATHRATTLES, deathrattles);
 	}
 
 	public void addSpellTrigger(SpellTrigger spellTrigger) {
@@ -49,24 +54,18 @@ public abstract class Actor extends Entity {
 	}
 
 	public void clearSpellTriggers() {
-		this.spellTriggers = new ArrayList<SpellTrigger>();
+		List<SpellTrigger> oldSpellTriggers = this.spellTriggers;
+		UndoJournal.record(() -> this.spellTriggers = oldSpellTriggers);
+		this.spellTriggers = new JournaledList<SpellTrigger>();
 	}
 
 	@Override
 	public Actor clone() {
 		Actor clone = (Actor) super.clone();
-		clone.attributes = new EnumMap<>(getAttributes());
-		clone.clearSpellTriggers();
+		clone.spellTriggers = new JournaledList<SpellTrigger>();
 		for (SpellTrigger trigger : getSpellTriggers()) {
 			clone.spellTriggers.add(trigger.clone());
 		}
-		if (hasAttribute(Attribute.DEATHRATTLES)) {
-			clone.removeAttribute(Attribute.DEATHRATTLES);
-			for (SpellDesc deathrattleSpell : getDeathrattles()) {
-				SpellDesc deathrattleClone = deathrattleSpell.clone();
-				clone.addDeathrattle(deathrattleClone);
-			}
-		}
 		return clone;
 	}
 
@@ -144,6 +143,14 @@ public abstract class Actor extends Entity {
 		return getHp() < 1 || super.isDestroyed();
 	}
 
+	@Override
+	protected boolean isSnapshotOf(Entity entity) {
+		// spell triggers are only added while an actor is created
+		Actor actor = (Actor) entity;
+		return super.isSnapshotOf(entity) && sourceCard == actor.sourceCard && cardCostModifier == actor.cardCostModifier
+				&& spellTriggers.size() == actor.spellTriggers.size();
+	}
+
 	public boolean isWounded() {
 		return getHp() != getMaxHp();
 	}
@@ -187,6 +194,10 @@ public abstract class Actor extends Entity {
 	}
 
 	public void setCardCostModifier(CardCostModifier cardCostModifier) {
+		if (this.cardCostModifier != cardCostModifier) {
+			CardCostModifier oldCardCostModifier = this.cardCostModifier;
+			UndoJournal.record(() -> this.cardCostModifier = oldCardCostModifier);
+		}
 		this.cardCostModifier = cardCostModifier;
 	}
 
@@ -202,6 +213,7 @@ public abstract class Actor extends Entity {
 	public void setOwner(int ownerIndex) {
 		super.setOwner(ownerIndex);
 		for (SpellTrigger trigger : spellTriggers) {
+			UndoJournal.recordTrigger(trigger);
 			trigger.setHost(this);
 		}
 	}
@@ -0,0 +1,264 @@
+package net.demilich.metastone.game.entities;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.demilich.metastone.game.Attribute;
+
+/**
+ * Attribute storage of an {@link Entity}. Integer values are kept unboxed in
+ * an array indexed by attribute ordinal and presence in a bit set, so numeric
+ * attributes can be read and modified without boxing or hashing. Values of
+ * other types, like deathrattles, race or triggers, go to a side table which
+ * is only allocated once such a value is stored. Copying the map copies the
+ * arrays.
+ */
+public class AttributeMap extends AbstractMap<Attribute, Object> implements Cloneable {
+
+	private static final Attribute[] ATTRIBUTES = Attribute.values();
+	private static final int WORDS = (ATTRIBUTES.length + 63) >>> 6;
+
+	private long[] present = new long[WORDS];
+	// marks present attributes which hold a value other than an Integer
+	private long[] objectValued = new long[WORDS];
+	private int[] values = new int[ATTRIBUTES.length];
+	private Object[] objects;
+	private int size;
+
+	private static boolean isSet(long[] bits, int ordinal) {
+		return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(present, 0);
+		Arrays.fill(objectValued, 0);
+		Arrays.fill(values, 0);
+		objects = null;
+		size = 0;
+	}
+
+	@Override
+	public AttributeMap clone() {
+		try {
+			AttributeMap clone = (AttributeMap) super.clone();
+			clone.present = present.clone();
+			clone.objectValued = objectValued.clone();
+			clone.values = values.clone();
+			clone.objects = objects != null ? objects.clone() : null;
+			return clone;
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	public boolean contains(Attribute attribute) {
+		return isSet(present, attribute.ordinal());
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof Attribute && contains((Attribute) key);
+	}
+
+	@Override
+	public Set<Entry<Attribute, Object>> entrySet() {
+		return new AbstractSet<Entry<Attribute, Object>>() {
+
+			@Override
+			public Iterator<Entry<Attribute, Object>> iterator() {
+				Iterator<Attribute> keys = keySet().iterator();
+				return new Iterator<Entry<Attribute, Object>>() {
+
+					@Override
+					public boolean hasNext() {
+						return keys.hasNext();
+					}
+
+					@Override
+					public Entry<Attribute, Object> next() {
+						Attribute attribute = keys.next();
+						return new SimpleImmutableEntry<>(attribute, get(attribute));
+					}
+
+					@Override
+					public void remove() {
+						keys.remove();
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+	public Object get(Attribute attribute) {
+		int ordinal = attribute.ordinal();
+		if (!isSet(present, ordinal)) {
+			return null;
+		}
+		return isSet(objectValued, ordinal) ? objects[ordinal] : Integer.valueOf(values[ordinal]);
+	}
+
+	@Override
+	public Object get(Object key) {
+		return key instanceof Attribute ? get((Attribute) key) : null;
+	}
+
+	/**
+	 * @return the value of a numeric attribute, or 0 if the attribute is not
+	 *         present
+	 */
+	public int getInt(Attribute attribute) {
+		int ordinal = attribute.ordinal();
+		if (isSet(objectValued, ordinal)) {
+			return (int) objects[ordinal];
+		}
+		return values[ordinal];
+	}
+
+	/**
+	 * @return <code>true</code> if the attribute is present with a value other
+	 *         than 0 or <code>null</code>
+	 */
+	public boolean has(Attribute attribute) {
+		int ordinal = attribute.ordinal();
+		if (isSet(objectValued, ordinal)) {
+			return objects[ordinal] != null;
+		}
+		return values[ordinal] != 0 && isSet(present, ordinal);
+	}
+
+	/**
+	 * @return <code>true</code> if the attribute is present and holds an
+	 *         Integer
+	 */
+	public boolean isNumeric(Attribute attribute) {
+		int ordinal = attribute.ordinal();
+		return isSet(present, ordinal) && !isSet(objectValued, ordinal);
+	}
+
+	@Override
+	public Set<Attribute> keySet() {
+		return new AbstractSet<Attribute>() {
+
+			@Override
+			public Iterator<Attribute> iterator() {
+				return new Iterator<Attribute>() {
+
+					private int next = nextPresent(0);
+					private int last = -1;
+
+					@Override
+					public boolean hasNext() {
+						return next < ATTRIBUTES.length;
+					}
+
+					@Override
+					public Attribute next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						last = next;
+						next = nextPresent(next + 1);
+						return ATTRIBUTES[last];
+					}
+
+					@Override
+					public void remove() {
+						if (last < 0) {
+							throw new IllegalStateException();
+						}
+						AttributeMap.this.remove(ATTRIBUTES[last]);
+						last = -1;
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+	private int nextPresent(int ordinal) {
+		while (ordinal < ATTRIBUTES.length) {
+			long word = present[ordinal >>> 6] >>> ordinal;
+			if (word != 0) {
+				return ordinal + Long.numberOfTrailingZeros(word);
+			}
+			ordinal = (ordinal | 63) + 1;
+		}
+		return ATTRIBUTES.length;
+	}
+
+	@Override
+	public Object put(Attribute attribute, Object value) {
+		Object oldValue = get(attribute);
+		if (value instanceof Integer) {
+			putInt(attribute, (Integer) value);
+			return oldValue;
+		}
+		int ordinal = attribute.ordinal();
+		setPresent(ordinal);
+		objectValued[ordinal >>> 6] |= 1L << ordinal;
+		if (objects == null) {
+			objects = new Object[ATTRIBUTES.length];
+		}
+		objects[ordinal] = value;
+		values[ordinal] = 0;
+		return oldValue;
+	}
+
+	public void putInt(Attribute attribute, int value) {
+		int ordinal = attribute.ordinal();
+		setPresent(ordinal);
+		if (isSet(objectValued, ordinal)) {
+			objectValued[ordinal >>> 6] &= ~(1L << ordinal);
+			objects[ordinal] = null;
+		}
+		values[ordinal] = value;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (!containsKey(key)) {
+			return null;
+		}
+		int ordinal = ((Attribute) key).ordinal();
+		Object oldValue = get(key);
+		present[ordinal >>> 6] &= ~(1L << ordinal);
+		objectValued[ordinal >>> 6] &= ~(1L << ordinal);
+		values[ordinal] = 0;
+		if (objects != null) {
+			objects[ordinal] = null;
+		}
+		size--;
+		return oldValue;
+	}
+
+	private void setPresent(int ordinal) {
+		if (!isSet(present, ordinal)) {
+			present[ordinal >>> 6] |= 1L << ordinal;
+			size++;
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
@@ -0,0 +1,61 @@
+package net.demilich.metastone.game.entities;
+
+import net.demilich.metastone.game.Attribute;
+
+/**
+ * Running totals over the attributes of the entities in one zone, so
+ * questions like "how much spell damage is on the board" do not require a
+ * scan of the zone. For every attribute it keeps the number of entities
+ * which have it (see {@link Entity#hasAttribute(Attribute)}) and the sum of
+ * its numeric values. Entities report their attribute changes while they are
+ * attached, see {@link Entity#attachAttributeTotals(AttributeTotals)}.
+ */
+public class AttributeTotals {
+
+	private static final int ATTRIBUTE_COUNT = Attribute.values().length;
+
+	private int[] counts;
+	private int[] totals;
+
+	/**
+	 * Adds the attributes of an entity to the totals the given number of
+	 * times, which may be negative. Attached entities do this themselves; it
+	 * is meant for shared snapshots, which cannot be attached.
+	 */
+	public void add(Entity entity, int times) {
+		for (Attribute attribute : entity.attributes.keySet()) {
+			add(entity, attribute, times);
+		}
+	}
+
+	void add(Entity entity, Attribute attribute, int times) {
+		AttributeMap attributes = entity.attributes;
+		if (!attributes.has(attribute)) {
+			return;
+		}
+		if (counts == null) {
+			counts = new int[ATTRIBUTE_COUNT];
+			totals = new int[ATTRIBUTE_COUNT];
+		}
+		int ordinal = attribute.ordinal();
+		counts[ordinal] += times;
+		if (attributes.isNumeric(attribute)) {
+			totals[ordinal] += times * attributes.getInt(attribute);
+		}
+	}
+
+	/**
+	 * @return the number of entities which have the given attribute
+	 */
+	public int getCount(Attribute attribute) {
+		return counts != null ? counts[attribute.ordinal()] : 0;
+	}
+
+	/**
+	 * @return the sum of the numeric values of the given attribute
+	 */
+	public int getTotal(Attribute attribute) {
+		return totals != null ? totals[attribute.ordinal()] : 0;
+	}
+
+}
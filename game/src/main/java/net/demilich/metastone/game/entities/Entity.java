@@ -1,36 +1,179 @@
 package net.demilich.metastone.game.entities;
 
-import java.util.EnumMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 
 import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.logic.CustomCloneable;
+import net.demilich.metastone.game.logic.EntityIndex;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.targeting.EntityReference;
 import net.demilich.metastone.game.targeting.IdFactory;
 
 public abstract class Entity extends CustomCloneable {
 
 	private String name;
-	protected Map<Attribute, Object> attributes = new EnumMap<Attribute, Object>(Attribute.class);
+	protected AttributeMap attributes = new AttributeMap();
+	private boolean attributesShared;
 	private int id = IdFactory.UNASSIGNED;
 	private int ownerIndex = -1;
 
+	private long attributeKey;
+	private ZobristKey zobristKey;
+	private long[] zoneKeys;
+	private int zoneCount;
+
+	private EntityIndex entityIndex;
+	private int entityIndexCount;
+
+	private volatile Entity snapshot;
+	private boolean shared;
+
+	private AttributeTotals attributeTotals;
+	private int attributeTotalsCount;
+
+	private void addToTotals(Attribute attribute) {
+		if (attributeTotals != null) {
+			attributeTotals.add(this, attribute, attributeTotalsCount);
+		}
+	}
+
+	public void attachAttributeTotals(AttributeTotals totals) {
+		adoptAttributeTotals(totals);
+		totals.add(this, 1);
+	}
+
+	public void attachEntityIndex(EntityIndex index) {
+		if (entityIndex != index) {
+			entityIndex = index;
+			entityIndexCount = 0;
+		}
+		entityIndexCount++;
+	}
+
+	/**
+	 * Adds this entity to the Zobrist key of a game. An entity may be part of
+	 * several zones at once, for example a destroyed hero is also put into
+	 * the graveyard; each zone adds its own contribution.
+	 */
+	public void attachZobristKey(ZobristKey key, long zoneKey) {
+		adoptZobristKey(key, zoneKey);
+		key.add(getZobristContribution(zoneKey));
+	}
+
+	/**
+	 * Records that this entity is part of the Zobrist key of a game without
+	 * adding its contribution, for an entity taking the place of an equal one
+	 * whose contribution is already part of the key.
+	 */
+	public void adoptZobristKey(ZobristKey key, long zoneKey) {
+		if (zobristKey != key) {
+			for (int i = 0; i < zoneCount; i++) {
+				zobristKey.remove(getZobristContribution(zoneKeys[i]));
+			}
+			zoneCount = 0;
+			zobristKey = key;
+		}
+		if (zoneKeys == null) {
+			zoneKeys = new long[2];
+		} else if (zoneCount == zoneKeys.length) {
+			zoneKeys = Arrays.copyOf(zoneKeys, zoneCount * 2);
+		}
+		zoneKeys[zoneCount++] = zoneKey;
+	}
+
+	public void adoptAttributeTotals(AttributeTotals totals) {
+		if (attributeTotals != totals) {
+			if (attributeTotals != null) {
+				attributeTotals.add(this, -attributeTotalsCount);
+			}
+			attributeTotals = totals;
+			attributeTotalsCount = 0;
+		}
+		attributeTotalsCount++;
+	}
+
+	public void clearAttributes() {
+		for (Attribute attribute : new ArrayList<>(attributes.keySet())) {
+			removeAttribute(attribute);
+		}
+	}
+
 	@Override
 	public Entity clone() {
 		Entity clone = (Entity) super.clone();
+		// the attribute map is shared until either side writes to it
+		attributesShared = true;
+		clone.attributesShared = true;
+		clone.zobristKey = null;
+		clone.zoneKeys = null;
+		clone.zoneCount = 0;
+		clone.entityIndex = null;
+		clone.entityIndexCount = 0;
+		clone.snapshot = null;
+		clone.shared = false;
+		clone.attributeTotals = null;
+		clone.attributeTotalsCount = 0;
 		return clone;
 	}
 
+	public void detachEntityIndex(EntityIndex index) {
+		if (entityIndex == index && --entityIndexCount == 0) {
+			entityIndex = null;
+		}
+	}
+
+	public void detachAttributeTotals(AttributeTotals totals) {
+		if (attributeTotals != totals) {
+			return;
+		}
+		totals.add(this, -1);
+		if (--attributeTotalsCount == 0) {
+			attributeTotals = null;
+		}
+	}
+
+	public boolean detachZobristKey(long zoneKey) {
+		for (int i = 0; i < zoneCount; i++) {
+			if (zoneKeys[i] == zoneKey) {
+				zoneKeys[i] = zoneKeys[--zoneCount];
+				zobristKey.remove(getZobristContribution(zoneKey));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Makes sure this entity holds a private copy of its attribute map before
+	 * it gets modified. Maps are shared between an entity and its clones
+	 * until the first write.
+	 */
+	private AttributeMap getWritableAttributes() {
+		if (attributesShared) {
+			attributes = attributes.clone();
+			attributesShared = false;
+		}
+		return attributes;
+	}
+
 	public Object getAttribute(Attribute attribute) {
 		return attributes.get(attribute);
 	}
 
+	/**
+	 * Read-only, as the attribute totals, the zobrist key and the undo journal
+	 * only follow changes made through the setters.
+	 */
 	public Map<Attribute, Object> getAttributes() {
-		return attributes;
+		return Collections.unmodifiableMap(attributes);
 	}
 
 	public int getAttributeValue(Attribute attribute) {
-		return attributes.containsKey(attribute) ? (int) attributes.get(attribute) : 0;
+		return attributes.getInt(attribute);
 	}
 
 	public abstract EntityType getEntityType();
@@ -47,19 +190,68 @@ public abstract class Entity extends CustomCloneable {
 		return ownerIndex;
 	}
 
+	public long getZobristContribution(long zoneKey) {
+		return ZobristKey.hash(attributeKey ^ zoneKey);
+	}
+
+	protected ZobristKey getZobristKey() {
+		return zobristKey;
+	}
+
+	protected int getZoneCount() {
+		return zoneCount;
+	}
+
+	protected long getZoneKey(int index) {
+		return zoneKeys[index];
+	}
+
+	/**
+	 * Returns an unmodifiable copy of this entity in its current state, which
+	 * the zones of cloned games hold instead of a clone of their own; see
+	 * {@link net.demilich.metastone.game.logic.EntityZone}. The copy is kept
+	 * until this entity changes, so cloning a game repeatedly does not copy
+	 * untouched entities again.
+	 */
+	public Entity getSnapshot() {
+		if (shared) {
+			return this;
+		}
+		Entity snapshot = this.snapshot;
+		if (snapshot == null || !snapshot.isSnapshotOf(this)) {
+			snapshot = clone();
+			snapshot.shared = true;
+			this.snapshot = snapshot;
+		}
+		return snapshot;
+	}
+
 	public EntityReference getReference() {
 		return EntityReference.pointTo(this);
 	}
 
 	public boolean hasAttribute(Attribute attribute) {
-		Object value = attributes.get(attribute);
-		if (value == null) {
-			return false;
-		}
-		if (value instanceof Integer) {
-			return ((int) value) != 0;
-		}
-		return true;
+		return attributes.has(attribute);
+	}
+
+	public boolean isAttachedTo(ZobristKey key) {
+		return zoneCount > 0 && zobristKey == key;
+	}
+
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * @return <code>true</code> if this snapshot still matches the given
+	 *         entity. Subclasses with state outside of the attributes add
+	 *         their own checks.
+	 */
+	protected boolean isSnapshotOf(Entity entity) {
+		// the attribute map is copied before it changes, so comparing it by
+		// identity is enough
+		return attributes == entity.attributes && attributeKey == entity.attributeKey && id == entity.id && ownerIndex == entity.ownerIndex
+				&& name == entity.name;
 	}
 
 	public boolean isDestroyed() {
@@ -67,9 +259,6 @@ public abstract class Entity extends CustomCloneable {
 	}
 
 	public void modifyAttribute(Attribute attribute, int value) {
-		if (!attributes.containsKey(attribute)) {
-			setAttribute(attribute, 0);
-		}
 		setAttribute(attribute, getAttributeValue(attribute) + value);
 	}
 	
@@ -77,32 +266,122 @@ public abstract class Entity extends CustomCloneable {
 		modifyAttribute(Attribute.HP_BONUS, value);
 	}
 
+	private void putAttribute(Attribute attribute, Object value) {
+		if (value instanceof Integer) {
+			putAttribute(attribute, (int) value);
+			return;
+		}
+		boolean present = attributes.contains(attribute);
+		Object oldValue = attributes.get(attribute);
+		UndoJournal.recordAttribute(this, attribute, present, oldValue);
+		removeFromTotals(attribute);
+		getWritableAttributes().put(attribute, value);
+		addToTotals(attribute);
+		updateAttributeKey(present ? ZobristKey.hashAttribute(attribute, oldValue) : 0, ZobristKey.hashAttribute(attribute, value));
+	}
+
+	private void putAttribute(Attribute attribute, int value) {
+		if (!attributes.isNumeric(attribute)) {
+			boolean present = attributes.contains(attribute);
+			Object oldValue = attributes.get(attribute);
+			UndoJournal.recordAttribute(this, attribute, present, oldValue);
+			removeFromTotals(attribute);
+			getWritableAttributes().putInt(attribute, value);
+			addToTotals(attribute);
+			updateAttributeKey(present ? ZobristKey.hashAttribute(attribute, oldValue) : 0, ZobristKey.hashAttribute(attribute, value));
+			return;
+		}
+		int oldValue = attributes.getInt(attribute);
+		if (oldValue == value) {
+			return;
+		}
+		UndoJournal.recordAttribute(this, attribute, oldValue);
+		removeFromTotals(attribute);
+		getWritableAttributes().putInt(attribute, value);
+		addToTotals(attribute);
+		updateAttributeKey(ZobristKey.hashAttribute(attribute, oldValue), ZobristKey.hashAttribute(attribute, value));
+	}
+
 	public void removeAttribute(Attribute attribute) {
-		attributes.remove(attribute);
+		if (!attributes.contains(attribute)) {
+			return;
+		}
+		Object oldValue = attributes.get(attribute);
+		UndoJournal.recordAttribute(this, attribute, true, oldValue);
+		removeFromTotals(attribute);
+		getWritableAttributes().remove(attribute);
+		updateAttributeKey(ZobristKey.hashAttribute(attribute, oldValue), 0);
+	}
+
+	private void removeFromTotals(Attribute attribute) {
+		if (attributeTotals != null) {
+			attributeTotals.add(this, attribute, -attributeTotalsCount);
+		}
 	}
 
 	public void setAttribute(Attribute attribute) {
-		attributes.put(attribute, 1);
+		putAttribute(attribute, 1);
 	}
 
 	public void setAttribute(Attribute attribute, int value) {
-		attributes.put(attribute, value);
+		putAttribute(attribute, value);
 	}
 
 	public void setAttribute(Attribute attribute, Object value) {
-		attributes.put(attribute, value);
+		putAttribute(attribute, value);
+	}
+
+	protected void shareAttributes(Entity other) {
+		if (attributeTotals != null) {
+			attributeTotals.add(this, -attributeTotalsCount);
+		}
+		attributes = other.attributes;
+		attributesShared = true;
+		other.attributesShared = true;
+		if (attributeTotals != null) {
+			attributeTotals.add(this, attributeTotalsCount);
+		}
+		updateAttributeKey(attributeKey, other.attributeKey);
 	}
 
 	public void setId(int id) {
+		if (this.id == id) {
+			return;
+		}
+		int oldId = this.id;
+		UndoJournal.record(() -> setId(oldId));
 		this.id = id;
+		if (entityIndex != null) {
+			entityIndex.changeId(this, oldId, entityIndexCount);
+		}
 	}
 
 	public void setName(String name) {
+		if (this.name != name) {
+			String oldName = this.name;
+			UndoJournal.record(() -> setName(oldName));
+			updateAttributeKey(oldName != null ? ZobristKey.hashFeature(ZobristKey.FEATURE_NAME, oldName) : 0,
+					name != null ? ZobristKey.hashFeature(ZobristKey.FEATURE_NAME, name) : 0);
+		}
 		this.name = name;
 	}
 
 	public void setOwner(int ownerIndex) {
+		if (this.ownerIndex != ownerIndex) {
+			int oldOwnerIndex = this.ownerIndex;
+			UndoJournal.record(() -> this.ownerIndex = oldOwnerIndex);
+		}
 		this.ownerIndex = ownerIndex;
 	}
 
+	protected void updateAttributeKey(long oldFeature, long newFeature) {
+		for (int i = 0; i < zoneCount; i++) {
+			zobristKey.remove(getZobristContribution(zoneKeys[i]));
+		}
+		attributeKey ^= oldFeature ^ newFeature;
+		for (int i = 0; i < zoneCount; i++) {
+			zobristKey.add(getZobristContribution(zoneKeys[i]));
+		}
+	}
+
 }
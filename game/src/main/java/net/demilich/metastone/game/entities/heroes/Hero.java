@@ -1,6 +1,5 @@
 package net.demilich.metastone.game.entities.heroes;
 
-import java.util.EnumMap;
 import java.util.Map;
 
 import net.demilich.metastone.game.Attribute;
@@ -9,6 +8,8 @@ import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.EntityType;
 import net.demilich.metastone.game.entities.weapons.Weapon;
 import net.demilich.metastone.game.heroes.powers.HeroPower;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ZobristKey;
 
 public class Hero extends Actor {
 
@@ -23,6 +24,15 @@ public class Hero extends Actor {
 		this.setHeroPower(heroPower);
 	}
 
+	@Override
+	public void attachZobristKey(ZobristKey key, long zoneKey) {
+		super.attachZobristKey(key, zoneKey);
+		heroPower.attachZobristKey(key, getEquipmentZoneKey(zoneKey, ZobristKey.ZONE_HERO_POWER));
+		if (weapon != null) {
+			weapon.attachZobristKey(key, getEquipmentZoneKey(zoneKey, ZobristKey.ZONE_WEAPON));
+		}
+	}
+
 	public void activateWeapon(boolean active) {
 		if (weapon != null) {
 			weapon.setActive(active);
@@ -40,6 +50,18 @@ public class Hero extends Actor {
 		return clone;
 	}
 
+	@Override
+	public boolean detachZobristKey(long zoneKey) {
+		if (!super.detachZobristKey(zoneKey)) {
+			return false;
+		}
+		heroPower.detachZobristKey(getEquipmentZoneKey(zoneKey, ZobristKey.ZONE_HERO_POWER));
+		if (weapon != null) {
+			weapon.detachZobristKey(getEquipmentZoneKey(zoneKey, ZobristKey.ZONE_WEAPON));
+		}
+		return true;
+	}
+
 	public int getArmor() {
 		return getAttributeValue(Attribute.ARMOR);
 	}
@@ -54,11 +76,15 @@ public class Hero extends Actor {
 	}
 
 	public Map<Attribute, Object> getAttributesCopy() {
-		Map<Attribute, Object> copy = new EnumMap<>(Attribute.class);
-		for (Attribute attribute : attributes.keySet()) {
-			copy.put(attribute, attributes.get(attribute));
-		}
-		return copy;
+		return attributes.clone();
+	}
+
+	/**
+	 * Hero power and weapon are hashed relative to the zone of the hero, as
+	 * the owner of the hero may not be known yet when they are attached.
+	 */
+	private static long getEquipmentZoneKey(long heroZoneKey, int zone) {
+		return ZobristKey.hash(heroZoneKey + zone);
 	}
 
 	public int getEffectiveHp() {
@@ -78,6 +104,15 @@ public class Hero extends Actor {
 		return heroPower;
 	}
 
+	/**
+	 * Heroes add their hero power and weapon to the Zobrist key, which a
+	 * shared snapshot cannot do, so they are copied right away instead.
+	 */
+	@Override
+	public Hero getSnapshot() {
+		return clone();
+	}
+
 	public Weapon getWeapon() {
 		return weapon;
 	}
@@ -89,12 +124,32 @@ public class Hero extends Actor {
 	}
 	
 	public void setHeroClass(HeroClass heroClass) {
+		if (this.heroClass != heroClass) {
+			HeroClass oldHeroClass = this.heroClass;
+			UndoJournal.record(() -> this.heroClass = oldHeroClass);
+		}
 		this.heroClass = heroClass;
 	}
 
 	public void setHeroPower(HeroPower heroPower) {
+		if (this.heroPower != heroPower) {
+			HeroPower oldHeroPower = this.heroPower;
+			UndoJournal.record(() -> setHeroPower(oldHeroPower));
+			for (int i = 0; i < getZoneCount(); i++) {
+				long zoneKey = getEquipmentZoneKey(getZoneKey(i), ZobristKey.ZONE_HERO_POWER);
+				if (oldHeroPower != null) {
+					oldHeroPower.detachZobristKey(zoneKey);
+				}
+				if (heroPower != null) {
+					heroPower.attachZobristKey(getZobristKey(), zoneKey);
+				}
+			}
+		}
 		this.heroPower = heroPower;
-		heroPower.setOwner(getOwner());
+		// rolling back the construction of a hero clears its hero power
+		if (heroPower != null) {
+			heroPower.setOwner(getOwner());
+		}
 	}
 
 	@Override
@@ -104,6 +159,19 @@ public class Hero extends Actor {
 	}
 
 	public void setWeapon(Weapon weapon) {
+		if (this.weapon != weapon) {
+			Weapon oldWeapon = this.weapon;
+			UndoJournal.record(() -> setWeapon(oldWeapon));
+			for (int i = 0; i < getZoneCount(); i++) {
+				long zoneKey = getEquipmentZoneKey(getZoneKey(i), ZobristKey.ZONE_WEAPON);
+				if (oldWeapon != null) {
+					oldWeapon.detachZobristKey(zoneKey);
+				}
+				if (weapon != null) {
+					weapon.attachZobristKey(getZobristKey(), zoneKey);
+				}
+			}
+		}
 		this.weapon = weapon;
 		if (weapon != null) {
 			weapon.setOwner(getOwner());
@@ -5,7 +5,10 @@ import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.entities.Actor;
+import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.EntityType;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.targeting.EntityReference;
 
@@ -49,6 +52,12 @@ public class Weapon extends Actor {
 		return active;
 	}
 
+	@Override
+	protected boolean isSnapshotOf(Entity entity) {
+		Weapon weapon = (Weapon) entity;
+		return super.isSnapshotOf(entity) && active == weapon.active && onEquip == weapon.onEquip && onUnequip == weapon.onUnequip;
+	}
+
 	public boolean isBroken() {
 		return !hasAttribute(Attribute.HP);
 	}
@@ -71,6 +80,12 @@ public class Weapon extends Actor {
 	}
 
 	public void setActive(boolean active) {
+		if (this.active != active) {
+			boolean oldActive = this.active;
+			UndoJournal.record(() -> setActive(oldActive));
+			updateAttributeKey(ZobristKey.hashFeature(ZobristKey.FEATURE_WEAPON_ACTIVE, oldActive),
+					ZobristKey.hashFeature(ZobristKey.FEATURE_WEAPON_ACTIVE, active));
+		}
 		this.active = active;
 	}
 
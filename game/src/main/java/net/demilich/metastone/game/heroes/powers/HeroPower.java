@@ -6,6 +6,8 @@ import net.demilich.metastone.game.actions.HeroPowerAction;
 import net.demilich.metastone.game.actions.PlayCardAction;
 import net.demilich.metastone.game.cards.SpellCard;
 import net.demilich.metastone.game.cards.desc.HeroPowerCardDesc;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.targeting.CardLocation;
 
 public class HeroPower extends SpellCard {
@@ -22,7 +24,7 @@ public class HeroPower extends SpellCard {
 	}
 
 	public void markUsed() {
-		this.used++;
+		setUsed(used + 1);
 	}
 
 	public void onWillUse(GameContext context, Player player) {
@@ -35,6 +37,12 @@ public class HeroPower extends SpellCard {
 	}
 	
 	public void setUsed(int used) {
+		if (this.used != used) {
+			int oldUsed = this.used;
+			UndoJournal.record(() -> setUsed(oldUsed));
+			updateAttributeKey(ZobristKey.hashFeature(ZobristKey.FEATURE_HERO_POWER_USED, oldUsed),
+					ZobristKey.hashFeature(ZobristKey.FEATURE_HERO_POWER_USED, used));
+		}
 		this.used = used;
 	}
 
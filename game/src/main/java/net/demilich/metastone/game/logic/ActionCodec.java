@@ -0,0 +1,153 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.List;
+
+import net.demilich.metastone.game.GameContext;
+import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.ActionType;
+import net.demilich.metastone.game.actions.GameAction;
+import net.demilich.metastone.game.actions.PhysicalAttackAction;
+import net.demilich.metastone.game.actions.PlayCardAction;
+import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.entities.minions.Minion;
+import net.demilich.metastone.game.targeting.CardLocation;
+import net.demilich.metastone.game.targeting.CardReference;
+import net.demilich.metastone.game.targeting.EntityReference;
+
+/**
+ * Packs the actions of a player into a single int, e.g. as a compact key for
+ * transposition tables or to log replays. Sources and targets are encoded by
+ * their slot as seen from the acting player, not by entity id, so equal
+ * situations get equal codes:
+ *
+ * <pre>
+ * bits  0-4   action type
+ * bits  5-9   source: hero, minions 1-7, hero power, hand cards 9-18
+ * bits 10-14  target: none, own hero, own minions 2-8, enemy hero, enemy minions 10-16
+ * bits 15-17  choose one option
+ * </pre>
+ *
+ * A code only identifies an action within a given state; use
+ * {@link ActionLogic#decodeAction(GameContext, Player, int)} to get the
+ * action back.
+ */
+public class ActionCodec {
+
+	public static final int SOURCE_HERO = 0;
+	public static final int SOURCE_MINION = 1;
+	public static final int SOURCE_HERO_POWER = SOURCE_MINION + GameLogic.MAX_MINIONS;
+	public static final int SOURCE_HAND = SOURCE_HERO_POWER + 1;
+
+	public static final int TARGET_NONE = 0;
+	public static final int TARGET_OWN_HERO = 1;
+	public static final int TARGET_OWN_MINION = 2;
+	public static final int TARGET_ENEMY_HERO = TARGET_OWN_MINION + GameLogic.MAX_MINIONS;
+	public static final int TARGET_ENEMY_MINION = TARGET_ENEMY_HERO + 1;
+
+	private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+	private static final int SOURCE_SHIFT = 5;
+	private static final int TARGET_SHIFT = 10;
+	private static final int OPTION_SHIFT = 15;
+	private static final int MASK = 0x1f;
+	private static final int OPTION_MASK = 0x7;
+
+	/**
+	 * Encodes an action of the player, using the target it already has.
+	 */
+	public static int encode(GameContext context, Player player, GameAction action) {
+		EntityReference targetKey = action.getTargetKey();
+		Entity target = targetKey == null || targetKey == EntityReference.NONE ? null : context.resolveSingleTarget(targetKey);
+		return encode(context, player, action, target);
+	}
+
+	/**
+	 * Encodes an action of the player as if it was aimed at the given target,
+	 * which may be <code>null</code>.
+	 */
+	public static int encode(GameContext context, Player player, GameAction action, Entity target) {
+		return encodeSource(context, player, action) | getTargetSlot(context, player, target) << TARGET_SHIFT;
+	}
+
+	private static int encodeSource(GameContext context, Player player, GameAction action) {
+		int source = SOURCE_HERO;
+		int option = 0;
+		if (action instanceof PhysicalAttackAction) {
+			Entity attacker = context.resolveSingleTarget(((PhysicalAttackAction) action).getAttackerReference());
+			source = attacker == player.getHero() ? SOURCE_HERO : SOURCE_MINION + indexOf(player.getMinions(), attacker);
+		} else if (action instanceof PlayCardAction) {
+			PlayCardAction playCardAction = (PlayCardAction) action;
+			CardReference cardReference = playCardAction.getCardReference();
+			if (cardReference.getLocation() == CardLocation.HERO_POWER) {
+				source = SOURCE_HERO_POWER;
+			} else {
+				source = SOURCE_HAND + indexOf(player.getHand(), cardReference.getCardId());
+			}
+			option = playCardAction.getGroupIndex();
+		}
+		return action.getActionType().ordinal() | source << SOURCE_SHIFT | option << OPTION_SHIFT;
+	}
+
+	public static ActionType getActionType(int code) {
+		return ACTION_TYPES[code & MASK];
+	}
+
+	public static int getOption(int code) {
+		return (code >>> OPTION_SHIFT) & OPTION_MASK;
+	}
+
+	public static int getSource(int code) {
+		return (code >>> SOURCE_SHIFT) & MASK;
+	}
+
+	public static int getTarget(int code) {
+		return (code >>> TARGET_SHIFT) & MASK;
+	}
+
+	/**
+	 * @return the entity in the given target slot of the player, or
+	 *         <code>null</code> for {@link #TARGET_NONE}
+	 */
+	public static Entity getTargetEntity(GameContext context, Player player, int slot) {
+		if (slot == TARGET_NONE) {
+			return null;
+		}
+		Player owner = slot < TARGET_ENEMY_HERO ? player : context.getOpponent(player);
+		int index = slot < TARGET_ENEMY_HERO ? slot - TARGET_OWN_MINION : slot - TARGET_ENEMY_MINION;
+		return index < 0 ? owner.getHero() : owner.getMinions().get(index);
+	}
+
+	private static int getTargetSlot(GameContext context, Player player, Entity target) {
+		if (target == null) {
+			return TARGET_NONE;
+		}
+		boolean own = target.getOwner() == player.getId();
+		Player owner = own ? player : context.getOpponent(player);
+		if (target == owner.getHero()) {
+			return own ? TARGET_OWN_HERO : TARGET_ENEMY_HERO;
+		}
+		return (own ? TARGET_OWN_MINION : TARGET_ENEMY_MINION) + indexOf(owner.getMinions(), target);
+	}
+
+	private static int indexOf(CardCollection hand, int cardId) {
+		for (int i = 0; i < hand.getCount(); i++) {
+			if (hand.get(i).getId() == cardId) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Card " + cardId + " is not in hand");
+	}
+
+	private static int indexOf(List<Minion> minions, Entity minion) {
+		int index = minions.indexOf(minion);
+		if (index == -1) {
+			throw new IllegalArgumentException(minion + " cannot be encoded");
+		}
+		return index;
+	}
+
+	private ActionCodec() {
+	}
+
+}
@@ -1,18 +1,19 @@
 package net.demilich.metastone.game.logic;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.TurnState;
+import net.demilich.metastone.game.actions.ActionType;
 import net.demilich.metastone.game.actions.EndTurnAction;
 import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.actions.PhysicalAttackAction;
+import net.demilich.metastone.game.actions.PlayCardAction;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.IChooseOneCard;
+import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.heroes.Hero;
 import net.demilich.metastone.game.entities.minions.Minion;
@@ -25,45 +26,29 @@ public class ActionLogic {
 
 	private final TargetLogic targetLogic = new TargetLogic();
 
-	public GameAction getAutoHeroPower(GameContext context, Player player) {
-		return getHeroPowerActions(context, player).get(0);
-	}
-
-	private List<GameAction> getHeroAttackActions(GameContext context, Player player) {
-		List<GameAction> heroAttackActions = new ArrayList<GameAction>();
+	private void addHeroAttackActions(GameContext context, Player player, ValidActionList heroAttackActions) {
 		Hero hero = player.getHero();
 		if (!hero.canAttackThisTurn()) {
-			return heroAttackActions;
+			return;
 		}
 		rollout(new PhysicalAttackAction(hero.getReference()), context, player, heroAttackActions);
-
-		return heroAttackActions;
 	}
 
-	private List<GameAction> getHeroPowerActions(GameContext context, Player player) {
-		List<GameAction> heroPowerActions = new ArrayList<GameAction>();
+	private void addHeroPowerActions(GameContext context, Player player, ValidActionList heroPowerActions) {
 		HeroPower heroPower = player.getHero().getHeroPower();
 		heroPower.onWillUse(context, player);
 		CardReference heroPowerReference = new CardReference(player.getId(), CardLocation.HERO_POWER, heroPower.getId(),
 				heroPower.getName());
 		if (!context.getLogic().canPlayCard(player.getId(), heroPowerReference)) {
-			return heroPowerActions;
+			return;
 		}
-		if (heroPower.hasAttribute(Attribute.CHOOSE_ONE)) {
-			IChooseOneCard chooseOneCard = (IChooseOneCard) heroPower;
-			for (GameAction chooseOneAction : chooseOneCard.playOptions()) {
-				rollout(chooseOneAction, context, player, heroPowerActions);
-			}
-		} else {
-			rollout(heroPower.play(), context, player, heroPowerActions);
+		for (GameAction heroPowerAction : getPlayActions(context, player, heroPower, false)) {
+			rollout(heroPowerAction, context, player, heroPowerActions);
 		}
-
-		return heroPowerActions;
 	}
 
-	private List<GameAction> getPhysicalAttackActions(GameContext context, Player player) {
-		List<GameAction> physicalAttackActions = new ArrayList<GameAction>();
-		physicalAttackActions.addAll(getHeroAttackActions(context, player));
+	private void addPhysicalAttackActions(GameContext context, Player player, ValidActionList physicalAttackActions) {
+		addHeroAttackActions(context, player, physicalAttackActions);
 
 		for (Minion minion : player.getMinions()) {
 			if (!minion.canAttackThisTurn()) {
@@ -72,12 +57,10 @@ public class ActionLogic {
 
 			rollout(new PhysicalAttackAction(minion.getReference()), context, player, physicalAttackActions);
 		}
-		return physicalAttackActions;
 	}
 
-	private List<GameAction> getPlayCardActions(GameContext context, Player player) {
-		List<GameAction> playCardActions = new ArrayList<GameAction>();
-		playCardActions.addAll(getHeroPowerActions(context, player));
+	private void addPlayCardActions(GameContext context, Player player, ValidActionList playCardActions) {
+		addHeroPowerActions(context, player, playCardActions);
 
 		for (Card card : player.getHand()) {
 			CardReference cardReference = new CardReference(player.getId(), CardLocation.HAND, card.getId(), card.getName());
@@ -85,30 +68,70 @@ public class ActionLogic {
 				continue;
 			}
 
-			if (card.hasAttribute(Attribute.CHOOSE_ONE)) {
-				IChooseOneCard chooseOneCard = (IChooseOneCard) card;
-				if (context.getLogic().hasAttribute(player, Attribute.BOTH_CHOOSE_ONE_OPTIONS) && chooseOneCard.hasBothOptions()) {
-					GameAction chooseOneAction = chooseOneCard.playBothOptions();
-					rollout(chooseOneAction, context, player, playCardActions);
-				} else {
-					for (GameAction chooseOneAction : chooseOneCard.playOptions()) {
-						rollout(chooseOneAction, context, player, playCardActions);
-					}
-				}
-			} else {
-				rollout(card.play(), context, player, playCardActions);
+			for (GameAction playCardAction : getPlayActions(context, player, card, true)) {
+				rollout(playCardAction, context, player, playCardActions);
 			}
+		}
+	}
+
+	/**
+	 * Turns a code of {@link ActionCodec} back into the action of the player.
+	 * The code has to be valid in the current state.
+	 */
+	public GameAction decodeAction(GameContext context, Player player, int code) {
+		ActionType actionType = ActionCodec.getActionType(code);
+		int source = ActionCodec.getSource(code);
+		if (actionType == ActionType.END_TURN) {
+			return new EndTurnAction();
+		}
+		GameAction action;
+		if (actionType == ActionType.PHYSICAL_ATTACK) {
+			Actor attacker = source == ActionCodec.SOURCE_HERO ? player.getHero() : player.getMinions().get(source - ActionCodec.SOURCE_MINION);
+			action = new PhysicalAttackAction(attacker.getReference());
+		} else if (source == ActionCodec.SOURCE_HERO_POWER) {
+			HeroPower heroPower = player.getHero().getHeroPower();
+			heroPower.onWillUse(context, player);
+			action = getPlayActions(context, player, heroPower, false)[ActionCodec.getOption(code)];
+		} else {
+			Card card = player.getHand().get(source - ActionCodec.SOURCE_HAND);
+			action = getPlayActions(context, player, card, true)[ActionCodec.getOption(code)];
+		}
+		context.getLogic().processTargetModifiers(player, action);
+		if (action.getTargetRequirement() != TargetSelection.NONE && action.getTargetRequirement() != TargetSelection.AUTO) {
+			action.setTarget(ActionCodec.getTargetEntity(context, player, ActionCodec.getTarget(code)));
+		}
+		return action;
+	}
 
+	public GameAction getAutoHeroPower(GameContext context, Player player) {
+		ValidActionList heroPowerActions = new ValidActionList();
+		addHeroPowerActions(context, player, heroPowerActions);
+		return heroPowerActions.get(0);
+	}
+
+	private PlayCardAction[] getPlayActions(GameContext context, Player player, Card card, boolean inHand) {
+		if (!card.hasAttribute(Attribute.CHOOSE_ONE)) {
+			return new PlayCardAction[] { card.play() };
+		}
+		IChooseOneCard chooseOneCard = (IChooseOneCard) card;
+		// only cards in hand may play both options
+		if (inHand && context.getLogic().hasAttribute(player, Attribute.BOTH_CHOOSE_ONE_OPTIONS)
+				&& chooseOneCard.hasBothOptions()) {
+			return new PlayCardAction[] { chooseOneCard.playBothOptions() };
 		}
-		return playCardActions;
+		return chooseOneCard.playOptions();
 	}
 
-	public List<GameAction> getValidActions(GameContext context, Player player) {
-		List<GameAction> validActions = new ArrayList<GameAction>();
-		validActions.addAll(getPhysicalAttackActions(context, player));
-		validActions.addAll(getPlayCardActions(context, player));
+	/**
+	 * Returns the actions the player can take. Actions are copied for each of
+	 * their targets only when they are accessed, see {@link ValidActionList}.
+	 */
+	public ValidActionList getValidActions(GameContext context, Player player) {
+		ValidActionList validActions = new ValidActionList();
+		addPhysicalAttackActions(context, player, validActions);
+		addPlayCardActions(context, player, validActions);
 		if (context.getTurnState() != TurnState.TURN_ENDED) {
-			validActions.add(new EndTurnAction());
+			validActions.add(new EndTurnAction(), null);
 		}
 
 		return validActions;
@@ -135,4 +158,13 @@ public class ActionLogic {
 		}
 	}
 
+	private void rollout(GameAction action, GameContext context, Player player, ValidActionList actions) {
+		context.getLogic().processTargetModifiers(player, action);
+		if (action.getTargetRequirement() == TargetSelection.NONE || action.getTargetRequirement() == TargetSelection.AUTO) {
+			actions.add(action, null);
+		} else {
+			actions.add(action, targetLogic.getValidTargets(context, player, action));
+		}
+	}
+
 }
@@ -0,0 +1,164 @@
+package net.demilich.metastone.game.logic;
+
+import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.targeting.IdFactory;
+
+/**
+ * Open addressed map from entity id to the entity holding that id, fed by
+ * the {@link EntityZone}s of a game. An entity may be part of several zones
+ * at once, so each id keeps a count of the zones containing it.
+ *
+ * Entities remember the index they were added to, so a change of their id
+ * moves them to the new id.
+ *
+ * The index is a cache: {@link #get(int)} may return <code>null</code> for
+ * ids which are present, for example when two different entities share an
+ * id. Callers fall back to searching the zones and {@link #put(Entity)} the
+ * result.
+ */
+public class EntityIndex {
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	private int[] ids = new int[INITIAL_CAPACITY];
+	private Entity[] entities = new Entity[INITIAL_CAPACITY];
+	private int[] counts = new int[INITIAL_CAPACITY];
+	private int size;
+
+	public void add(Entity entity) {
+		entity.attachEntityIndex(this);
+		addId(entity.getId(), entity);
+	}
+
+	private void addId(int id, Entity entity) {
+		if (id == IdFactory.UNASSIGNED) {
+			return;
+		}
+		int slot = find(id);
+		if (counts[slot] == 0) {
+			insert(slot, id, entity);
+		} else {
+			if (entities[slot] != entity) {
+				// ambiguous, leave it to the caller to find the right one
+				entities[slot] = null;
+			}
+			counts[slot]++;
+		}
+	}
+
+	/**
+	 * Moves an entity which was added the given number of times from its
+	 * old id to its current one.
+	 */
+	public void changeId(Entity entity, int oldId, int times) {
+		for (int i = 0; i < times; i++) {
+			removeId(oldId);
+			addId(entity.getId(), entity);
+		}
+	}
+
+	private void delete(int slot) {
+		int mask = ids.length - 1;
+		int empty = slot;
+		// shift back following entries of the probe sequence
+		for (int i = (slot + 1) & mask; counts[i] != 0; i = (i + 1) & mask) {
+			int home = hash(ids[i]) & mask;
+			if (((i - home) & mask) >= ((i - empty) & mask)) {
+				ids[empty] = ids[i];
+				entities[empty] = entities[i];
+				counts[empty] = counts[i];
+				empty = i;
+			}
+		}
+		entities[empty] = null;
+		counts[empty] = 0;
+		size--;
+	}
+
+	private int find(int id) {
+		int mask = ids.length - 1;
+		int slot = hash(id) & mask;
+		while (counts[slot] != 0 && ids[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * @return the entity with the given id, or <code>null</code> if the index
+	 *         does not know it
+	 */
+	public Entity get(int id) {
+		int slot = find(id);
+		Entity entity = entities[slot];
+		if (counts[slot] == 0 || entity == null || entity.getId() != id) {
+			return null;
+		}
+		return entity;
+	}
+
+	private static int hash(int id) {
+		return id * 0x9e3779b9;
+	}
+
+	private void insert(int slot, int id, Entity entity) {
+		ids[slot] = id;
+		entities[slot] = entity;
+		counts[slot] = 1;
+		if (++size * 2 > ids.length) {
+			resize();
+		}
+	}
+
+	/**
+	 * Adds an entity which was found outside of the index.
+	 */
+	public void put(Entity entity) {
+		if (entity.getId() == IdFactory.UNASSIGNED) {
+			return;
+		}
+		int slot = find(entity.getId());
+		if (counts[slot] == 0) {
+			insert(slot, entity.getId(), entity);
+		} else if (entities[slot] != null && entities[slot].getId() != entity.getId()) {
+			// the indexed entity has been given another id since
+			entities[slot] = entity;
+		}
+	}
+
+	public void remove(Entity entity) {
+		entity.detachEntityIndex(this);
+		removeId(entity.getId());
+	}
+
+	private void removeId(int id) {
+		if (id == IdFactory.UNASSIGNED) {
+			return;
+		}
+		int slot = find(id);
+		if (counts[slot] == 0) {
+			return;
+		}
+		if (--counts[slot] == 0) {
+			delete(slot);
+		}
+	}
+
+	private void resize() {
+		int[] oldIds = ids;
+		Entity[] oldEntities = entities;
+		int[] oldCounts = counts;
+		ids = new int[oldIds.length * 2];
+		entities = new Entity[oldIds.length * 2];
+		counts = new int[oldIds.length * 2];
+		for (int i = 0; i < oldIds.length; i++) {
+			if (oldCounts[i] != 0) {
+				int slot = find(oldIds[i]);
+				ids[slot] = oldIds[i];
+				entities[slot] = oldEntities[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,258 @@
+package net.demilich.metastone.game.logic;
+
+import net.demilich.metastone.game.entities.AttributeTotals;
+import net.demilich.metastone.game.entities.Entity;
+
+/**
+ * Journaled list of the entities in one zone of a player. Once a
+ * {@link ZobristKey} is set, entities entering or leaving the zone are added
+ * to or removed from that key. In an ordered zone, such as the board, the
+ * position of an entity is part of its contribution. Likewise, entities are
+ * added to and removed from the {@link EntityIndex} of the game and the
+ * {@link AttributeTotals} of the zone, if set.
+ * <p>
+ * A zone may also hold shared snapshots (see {@link Entity#getSnapshot()}),
+ * which is how cloned games get the entities of a zone without copying them.
+ * Their contribution is added to the key directly and they are left out of
+ * the index. A snapshot is replaced by a private copy as soon as it is
+ * retrieved, so only entities which are actually used get copied.
+ */
+public class EntityZone<E extends Entity> extends JournaledList<E> {
+
+	private final boolean ordered;
+	private EntityIndex entityIndex;
+	private AttributeTotals attributeTotals;
+	private ZobristKey zobristKey;
+	private int zone;
+	private int owner;
+	private int version;
+
+	public EntityZone() {
+		this(false);
+	}
+
+	public EntityZone(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Adds snapshots of all entities of another zone, so a cloned game gets
+	 * them without copying entities it never uses.
+	 */
+	@SuppressWarnings("unchecked")
+	public void addSnapshots(EntityZone<? extends E> zone) {
+		for (int i = 0; i < zone.size(); i++) {
+			add((E) zone.peek(i).getSnapshot());
+		}
+	}
+
+	private void addToTotals(E element) {
+		if (element.isShared()) {
+			attributeTotals.add(element, 1);
+		} else {
+			element.attachAttributeTotals(attributeTotals);
+		}
+	}
+
+	private void attach(E element, long zoneKey) {
+		if (element.isShared()) {
+			zobristKey.add(element.getZobristContribution(zoneKey));
+		} else {
+			element.attachZobristKey(zobristKey, zoneKey);
+		}
+	}
+
+	private void detach(E element, long zoneKey) {
+		if (element.isShared()) {
+			zobristKey.remove(element.getZobristContribution(zoneKey));
+		} else {
+			element.detachZobristKey(zoneKey);
+		}
+	}
+
+	@Override
+	protected void elementAdded(int index, E element) {
+		version++;
+		if (entityIndex != null && !element.isShared()) {
+			entityIndex.add(element);
+		}
+		if (attributeTotals != null) {
+			addToTotals(element);
+		}
+		if (zobristKey == null) {
+			return;
+		}
+		attach(element, getZoneKey(index));
+		if (ordered) {
+			for (int i = index + 1; i < size(); i++) {
+				move(peek(i), i - 1, i);
+			}
+		}
+	}
+
+	@Override
+	protected void elementRemoved(int index, E element) {
+		version++;
+		if (entityIndex != null && !element.isShared()) {
+			entityIndex.remove(element);
+		}
+		if (attributeTotals != null) {
+			removeFromTotals(element);
+		}
+		if (zobristKey == null) {
+			return;
+		}
+		detach(element, getZoneKey(index));
+		if (ordered) {
+			for (int i = index; i < size(); i++) {
+				move(peek(i), i + 1, i);
+			}
+		}
+	}
+
+	@Override
+	protected void elementReplaced(int index, E oldElement, E element) {
+		version++;
+		if (entityIndex != null) {
+			if (!oldElement.isShared()) {
+				entityIndex.remove(oldElement);
+			}
+			if (!element.isShared()) {
+				entityIndex.add(element);
+			}
+		}
+		if (attributeTotals != null) {
+			removeFromTotals(oldElement);
+			addToTotals(element);
+		}
+		if (zobristKey == null) {
+			return;
+		}
+		detach(oldElement, getZoneKey(index));
+		attach(element, getZoneKey(index));
+	}
+
+	/**
+	 * Returns the entity at the given index, replacing a shared snapshot by
+	 * a private copy first.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		E element = super.get(index);
+		if (element.isShared()) {
+			element = (E) element.clone();
+			replaceUnrecorded(index, element);
+			version++;
+			// the copy takes over the place of the snapshot without changing
+			// the state of the game
+			if (entityIndex != null) {
+				entityIndex.add(element);
+			}
+			if (attributeTotals != null) {
+				element.adoptAttributeTotals(attributeTotals);
+			}
+			if (zobristKey != null) {
+				element.adoptZobristKey(zobristKey, getZoneKey(index));
+			}
+		}
+		return element;
+	}
+
+	/**
+	 * @return a number which changes whenever an entity of this zone is
+	 *         added, removed or replaced, including rollbacks; views on the
+	 *         zone use it to tell when they are outdated
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	private long getZoneKey(int index) {
+		return ZobristKey.hashZone(zone, owner, ordered ? index : 0);
+	}
+
+	private void move(E element, int oldIndex, int index) {
+		detach(element, getZoneKey(oldIndex));
+		attach(element, getZoneKey(index));
+	}
+
+	/**
+	 * Returns the element at the given index as it is stored, which may be a
+	 * shared snapshot. The result may only be read.
+	 */
+	protected E peek(int index) {
+		return super.get(index);
+	}
+
+	private void removeFromTotals(E element) {
+		if (element.isShared()) {
+			attributeTotals.add(element, -1);
+		} else {
+			element.detachAttributeTotals(attributeTotals);
+		}
+	}
+
+	/**
+	 * Adds the attributes of all entities of this zone to the given totals,
+	 * and keeps the totals up to date from now on.
+	 */
+	public void setAttributeTotals(AttributeTotals totals) {
+		if (attributeTotals != null) {
+			for (int i = 0; i < size(); i++) {
+				removeFromTotals(peek(i));
+			}
+		}
+		attributeTotals = totals;
+		for (int i = 0; i < size(); i++) {
+			addToTotals(peek(i));
+		}
+	}
+
+	/**
+	 * Adds all entities of this zone to the given index, and keeps the index
+	 * up to date from now on.
+	 * 
+	 * @param index
+	 *            the entity index of the game this zone belongs to
+	 */
+	public void setEntityIndex(EntityIndex index) {
+		for (int i = 0; i < size(); i++) {
+			E element = peek(i);
+			if (element.isShared()) {
+				continue;
+			}
+			if (entityIndex != null) {
+				entityIndex.remove(element);
+			}
+			index.add(element);
+		}
+		entityIndex = index;
+	}
+
+	/**
+	 * Adds all entities of this zone to the given key, and keeps the key up
+	 * to date from now on.
+	 * 
+	 * @param key
+	 *            the key of the game this zone belongs to
+	 * @param zone
+	 *            one of the zone constants of {@link ZobristKey}
+	 * @param owner
+	 *            the id of the player owning this zone
+	 */
+	public void setZobristKey(ZobristKey key, int zone, int owner) {
+		if (zobristKey != null) {
+			for (int i = 0; i < size(); i++) {
+				detach(peek(i), getZoneKey(i));
+			}
+		}
+		this.zobristKey = key;
+		this.zone = zone;
+		this.owner = owner;
+		for (int i = 0; i < size(); i++) {
+			attach(peek(i), getZoneKey(i));
+		}
+	}
+
+}
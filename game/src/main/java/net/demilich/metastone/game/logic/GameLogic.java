@@ -2,11 +2,11 @@ package net.demilich.metastone.game.logic;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
@@ -51,6 +51,7 @@ import net.demilich.metastone.game.events.DiscardEvent;
 import net.demilich.metastone.game.events.DrawCardEvent;
 import net.demilich.metastone.game.events.EnrageChangedEvent;
 import net.demilich.metastone.game.events.GameEvent;
+import net.demilich.metastone.game.events.GameEventType;
 import net.demilich.metastone.game.events.GameStartEvent;
 import net.demilich.metastone.game.events.HealEvent;
 import net.demilich.metastone.game.events.HeroPowerUsedEvent;
@@ -122,13 +123,21 @@ public class GameLogic implements Cloneable {
 	private final ActionLogic actionLogic = new ActionLogic();
 	private final SpellFactory spellFactory = new SpellFactory();
 	private final IdFactory idFactory;
+	private final ManaCostCache manaCostCache = new ManaCostCache();
 	private GameContext context;
 
 	private boolean loggingEnabled = true;
 
 	// DEBUG
 	private final int MAX_HISTORY_ENTRIES = 100;
-	private Queue<String> debugHistory = new LinkedList<>();
+	private Deque<String> debugHistory = new LinkedList<>();
+
+	private UndoJournal journal;
+	private int actionDepth;
+
+	// state version and active player the board was last evaluated for
+	private long settledStateVersion = -1;
+	private int settledActivePlayer = -1;
 
 	public GameLogic() {
 		idFactory = new IdFactory();
@@ -139,7 +148,8 @@ public class GameLogic implements Cloneable {
 	}
 
 	public void addGameEventListener(Player player, IGameEventListener gameEventListener, Entity target) {
-		debugHistory.add("Player " + player.getId() + " has set event listener " + gameEventListener.getClass().getName() + " from entity " + target.getName() + "[Reference ID: " + target.getId() + "]");
+		addDebugHistory("Player " + player.getId() + " has set event listener " + gameEventListener.getClass().getName() + " from entity " + target.getName() + "[Reference ID: " + target.getId() + "]");
+		UndoJournal.recordTrigger(gameEventListener);
 		gameEventListener.setHost(target);
 		if (!gameEventListener.hasPersistentOwner() || gameEventListener.getOwner() == -1) {
 			gameEventListener.setOwner(player.getId());
@@ -155,6 +165,11 @@ public class GameLogic implements Cloneable {
 		addGameEventListener(player, cardCostModifier, target);
 	}
 
+	private void addDebugHistory(String entry) {
+		debugHistory.add(entry);
+		UndoJournal.record(() -> debugHistory.removeLast());
+	}
+
 	public void afterCardPlayed(int playerId, CardReference cardReference) {
 		Player player = context.getPlayer(playerId);
 
@@ -243,6 +258,26 @@ public class GameLogic implements Cloneable {
 		return false;
 	}
 
+	/**
+	 * Lets auras and other triggers which depend on the board re-evaluate
+	 * themselves. These triggers are a function of the game state, so the
+	 * event is skipped if nothing changed since the last evaluation started.
+	 * Changes made while evaluating count, so triggers which react to each
+	 * other still see the final state.
+	 */
+	private void boardChanged() {
+		if (!context.hasGameEventListeners(GameEventType.BOARD_CHANGED)) {
+			return;
+		}
+		long stateVersion = context.getStateVersion();
+		if (stateVersion == settledStateVersion && context.getActivePlayerId() == settledActivePlayer) {
+			return;
+		}
+		settledStateVersion = stateVersion;
+		settledActivePlayer = context.getActivePlayerId();
+		context.fireGameEvent(new BoardChangedEvent(context));
+	}
+
 	public boolean canPlayCard(int playerId, CardReference cardReference) {
 		Player player = context.getPlayer(playerId);
 		Card card = context.resolveCardReference(cardReference);
@@ -315,8 +350,10 @@ public class GameLogic implements Cloneable {
 			if (chosenCard.getTargetRequirement() != TargetSelection.NONE) {
 				context.getEnvironment().remove(Environment.TARGET_OVERRIDE);
 				context.getEnvironment().put(Environment.CHOOSE_ONE_CARD, chosenCard.getCardId());
-				GameEvent spellTargetEvent = new TargetAcquisitionEvent(context, playerId, ActionType.SPELL, chosenCard, targets.get(0));
-				context.fireGameEvent(spellTargetEvent);
+				if (context.hasGameEventListeners(GameEventType.TARGET_ACQUISITION)) {
+					GameEvent spellTargetEvent = new TargetAcquisitionEvent(context, playerId, ActionType.SPELL, chosenCard, targets.get(0));
+					context.fireGameEvent(spellTargetEvent);
+				}
 				Entity targetOverride = context
 						.resolveSingleTarget((EntityReference) context.getEnvironment().get(Environment.TARGET_OVERRIDE));
 				if (targetOverride != null && targetOverride.getId() != IdFactory.UNASSIGNED) {
@@ -343,10 +380,9 @@ public class GameLogic implements Cloneable {
 		context.getEnvironment().remove(Environment.CHOOSE_ONE_CARD);
 
 		checkForDeadEntities();
-		if (targets == null || targets.size() != 1) {
-			context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, null));
-		} else {
-			context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, targets.get(0)));
+		if (context.hasGameEventListeners(GameEventType.AFTER_SPELL_CASTED)) {
+			Entity eventTarget = targets == null || targets.size() != 1 ? null : targets.get(0);
+			context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, eventTarget));
 		}
 	}
 
@@ -382,8 +418,10 @@ public class GameLogic implements Cloneable {
 		if (sourceCard != null && sourceCard.getCardType().isCardType(CardType.SPELL) && !spellDesc.hasPredefinedTarget() && targets != null
 				&& targets.size() == 1) {
 			if (sourceCard.getCardType().isCardType(CardType.SPELL) && targetSelection != TargetSelection.NONE && !childSpell) {
-				GameEvent spellTargetEvent = new TargetAcquisitionEvent(context, playerId, ActionType.SPELL, sourceCard, targets.get(0));
-				context.fireGameEvent(spellTargetEvent);
+				if (context.hasGameEventListeners(GameEventType.TARGET_ACQUISITION)) {
+					GameEvent spellTargetEvent = new TargetAcquisitionEvent(context, playerId, ActionType.SPELL, sourceCard, targets.get(0));
+					context.fireGameEvent(spellTargetEvent);
+				}
 				Entity targetOverride = context
 						.resolveSingleTarget((EntityReference) context.getEnvironment().get(Environment.TARGET_OVERRIDE));
 				if (targetOverride != null && targetOverride.getId() != IdFactory.UNASSIGNED) {
@@ -411,10 +449,9 @@ public class GameLogic implements Cloneable {
 			context.getEnvironment().remove(Environment.TARGET_OVERRIDE);
 
 			checkForDeadEntities();
-			if (targets == null || targets.size() != 1) {
-				context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, null));
-			} else {
-				context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, targets.get(0)));
+			if (context.hasGameEventListeners(GameEventType.AFTER_SPELL_CASTED)) {
+				Entity eventTarget = targets == null || targets.size() != 1 ? null : targets.get(0);
+				context.fireGameEvent(new AfterSpellCastedEvent(context, playerId, sourceCard, eventTarget));
 			}
 		}
 	}
@@ -513,7 +550,9 @@ public class GameLogic implements Cloneable {
 			damage *= 2;
 		}
 		context.getDamageStack().push(damage);
-		context.fireGameEvent(new PreDamageEvent(context, target, source));
+		if (context.hasGameEventListeners(GameEventType.PRE_DAMAGE)) {
+			context.fireGameEvent(new PreDamageEvent(context, target, source));
+		}
 		damage = context.getDamageStack().pop();
 		if (damage > 0) {
 			source.removeAttribute(Attribute.STEALTH);
@@ -531,8 +570,10 @@ public class GameLogic implements Cloneable {
 
 		target.setAttribute(Attribute.LAST_HIT, damageDealt);
 		if (damageDealt > 0) {
-			DamageEvent damageEvent = new DamageEvent(context, target, source, damageDealt);
-			context.fireGameEvent(damageEvent);
+			if (context.hasGameEventListeners(GameEventType.DAMAGE)) {
+				DamageEvent damageEvent = new DamageEvent(context, target, source, damageDealt);
+				context.fireGameEvent(damageEvent);
+			}
 			player.getStatistics().damageDealt(damageDealt);
 		}
 
@@ -572,6 +613,11 @@ public class GameLogic implements Cloneable {
 		return damage;
 	}
 
+	public GameAction decodeAction(int playerId, int code) {
+		Player player = context.getPlayer(playerId);
+		return actionLogic.decodeAction(context, player, code);
+	}
+
 	public void destroy(Actor... targets) {
 		int[] boardPositions = new int[targets.length];
 
@@ -620,13 +666,15 @@ public class GameLogic implements Cloneable {
 			removeSpellTriggers(target, true);
 		}
 
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 	}
 
 	private void destroyMinion(Minion minion) {
 		context.getEnvironment().put(Environment.KILLED_MINION, minion.getReference());
-		KillEvent killEvent = new KillEvent(context, minion);
-		context.fireGameEvent(killEvent);
+		if (context.hasGameEventListeners(GameEventType.KILL)) {
+			KillEvent killEvent = new KillEvent(context, minion);
+			context.fireGameEvent(killEvent);
+		}
 		context.getEnvironment().remove(Environment.KILLED_MINION);
 
 		minion.setAttribute(Attribute.DESTROYED);
@@ -640,7 +688,9 @@ public class GameLogic implements Cloneable {
 			owner.getHero().setWeapon(null);
 		}
 		weapon.onUnequip(context, owner);
-		context.fireGameEvent(new WeaponDestroyedEvent(context, weapon));
+		if (context.hasGameEventListeners(GameEventType.WEAPON_DESTROYED)) {
+			context.fireGameEvent(new WeaponDestroyedEvent(context, weapon));
+		}
 	}
 
 	public int determineBeginner(int... playerIds) {
@@ -650,7 +700,7 @@ public class GameLogic implements Cloneable {
 	public void discardCard(Player player, Card card) {
 		logger.debug("{} discards {}", player.getName(), card);
 		// only a 'real' discard should fire a DiscardEvent
-		if (card.getLocation() == CardLocation.HAND) {
+		if (card.getLocation() == CardLocation.HAND && context.hasGameEventListeners(GameEventType.DISCARD)) {
 			context.fireGameEvent(new DiscardEvent(context, player.getId(), card));
 		}
 
@@ -755,8 +805,10 @@ public class GameLogic implements Cloneable {
 			addManaModifier(player, weapon.getCardCostModifier(), weapon);
 		}
 		checkForDeadEntities();
-		context.fireGameEvent(new WeaponEquippedEvent(context, weapon));
-		context.fireGameEvent(new BoardChangedEvent(context));
+		if (context.hasGameEventListeners(GameEventType.WEAPON_EQUIPPED)) {
+			context.fireGameEvent(new WeaponEquippedEvent(context, weapon));
+		}
+		boardChanged();
 	}
 
 	public void fight(Player player, Actor attacker, Actor defender) {
@@ -764,9 +816,11 @@ public class GameLogic implements Cloneable {
 
 		context.getEnvironment().put(Environment.ATTACKER_REFERENCE, attacker.getReference());
 
-		TargetAcquisitionEvent targetAcquisitionEvent = new TargetAcquisitionEvent(context, player.getId(), ActionType.PHYSICAL_ATTACK,
-				attacker, defender);
-		context.fireGameEvent(targetAcquisitionEvent);
+		if (context.hasGameEventListeners(GameEventType.TARGET_ACQUISITION)) {
+			TargetAcquisitionEvent targetAcquisitionEvent = new TargetAcquisitionEvent(context, player.getId(), ActionType.PHYSICAL_ATTACK,
+					attacker, defender);
+			context.fireGameEvent(targetAcquisitionEvent);
+		}
 		Actor target = defender;
 		if (context.getEnvironment().containsKey(Environment.TARGET_OVERRIDE)) {
 			target = (Actor) context.resolveSingleTarget((EntityReference) context.getEnvironment().get(Environment.TARGET_OVERRIDE));
@@ -791,7 +845,9 @@ public class GameLogic implements Cloneable {
 
 		int attackerDamage = attacker.getAttack();
 		int defenderDamage = target.getAttack();
-		context.fireGameEvent(new PhysicalAttackEvent(context, attacker, target, attackerDamage));
+		if (context.hasGameEventListeners(GameEventType.PHYSICAL_ATTACK)) {
+			context.fireGameEvent(new PhysicalAttackEvent(context, attacker, target, attackerDamage));
+		}
 		// secret may have killed attacker ADDENDUM: or defender
 		if (attacker.isDestroyed() || target.isDestroyed()) {
 			context.getEnvironment().remove(Environment.ATTACKER_REFERENCE);
@@ -820,7 +876,9 @@ public class GameLogic implements Cloneable {
 		}
 		attacker.modifyAttribute(Attribute.NUMBER_OF_ATTACKS, -1);
 
-		context.fireGameEvent(new AfterPhysicalAttackEvent(context, attacker, target, damaged ? attackerDamage : 0));
+		if (context.hasGameEventListeners(GameEventType.AFTER_PHYSICAL_ATTACK)) {
+			context.fireGameEvent(new AfterPhysicalAttackEvent(context, attacker, target, damaged ? attackerDamage : 0));
+		}
 
 		context.getEnvironment().remove(Environment.ATTACKER_REFERENCE);
 	}
@@ -829,7 +887,7 @@ public class GameLogic implements Cloneable {
 		logger.debug("{} gains {} armor", player.getHero(), armor);
 		player.getHero().modifyArmor(armor);
 		player.getStatistics().armorGained(armor);
-		if (armor > 0) {
+		if (armor > 0 && context.hasGameEventListeners(GameEventType.ARMOR_GAINED)) {
 			context.fireGameEvent(new ArmorGainedEvent(context, player.getHero()));
 		}
 	}
@@ -890,7 +948,7 @@ public class GameLogic implements Cloneable {
 	 */
 	public int getGreatestAttributeValue(Player player, Attribute attr) {
 		int greatest = Math.max(INFINITE, player.getHero().getAttributeValue(attr));
-		if (greatest == INFINITE) {
+		if (greatest == INFINITE || player.getSummonAttributeTotals().getCount(attr) == 0) {
 			return greatest;
 		}
 		for (Summon summon : player.getSummons()) {
@@ -918,6 +976,15 @@ public class GameLogic implements Cloneable {
 	}
 
 	public int getModifiedManaCost(Player player, Card card) {
+		// the cost of cards with a dynamic cost may depend on things which are
+		// not part of the state version, like the statistics
+		boolean cacheable = !card.hasDynamicManaCost() && context.isTracked(card);
+		if (cacheable) {
+			int cachedManaCost = manaCostCache.get(context, card);
+			if (cachedManaCost != ManaCostCache.MISSING) {
+				return cachedManaCost;
+			}
+		}
 		int manaCost = card.getManaCost(context, player);
 		int minValue = 0;
 		for (CardCostModifier costModifier : context.getCardCostModifiers()) {
@@ -933,29 +1000,18 @@ public class GameLogic implements Cloneable {
 			manaCost += card.getAttributeValue(Attribute.MANA_COST_MODIFIER);
 		}
 		manaCost = MathUtils.clamp(manaCost, minValue, Integer.MAX_VALUE);
+		if (cacheable) {
+			manaCostCache.put(context, card, manaCost);
+		}
 		return manaCost;
 	}
 
 	public List<IGameEventListener> getQuests(Player player) {
-		List<IGameEventListener> quests = context.getTriggersAssociatedWith(player.getHero().getReference());
-		for (Iterator<IGameEventListener> iterator = quests.iterator(); iterator.hasNext();) {
-			IGameEventListener trigger = iterator.next();
-			if (!(trigger instanceof Quest)) {
-				iterator.remove();
-			}
-		}
-		return quests;
+		return context.getQuestsAssociatedWith(player.getHero().getReference());
 	}
 
 	public List<IGameEventListener> getSecrets(Player player) {
-		List<IGameEventListener> secrets = context.getTriggersAssociatedWith(player.getHero().getReference());
-		for (Iterator<IGameEventListener> iterator = secrets.iterator(); iterator.hasNext();) {
-			IGameEventListener trigger = iterator.next();
-			if (!(trigger instanceof Secret)) {
-				iterator.remove();
-			}
-		}
-		return secrets;
+		return context.getSecretsAssociatedWith(player.getHero().getReference());
 	}
 
 	public int getTotalAttributeValue(Attribute attr) {
@@ -967,15 +1023,7 @@ public class GameLogic implements Cloneable {
 	}
 
 	public int getTotalAttributeValue(Player player, Attribute attr) {
-		int total = player.getHero().getAttributeValue(attr);
-		for (Summon summon : player.getSummons()) {
-			if (!summon.hasAttribute(attr)) {
-				continue;
-			}
-
-			total += summon.getAttributeValue(attr);
-		}
-		return total;
+		return player.getHero().getAttributeValue(attr) + player.getSummonAttributeTotals().getTotal(attr);
 	}
 
 	public int getTotalAttributeMultiplier(Player player, Attribute attribute) {
@@ -983,6 +1031,9 @@ public class GameLogic implements Cloneable {
 		if (player.getHero().hasAttribute(attribute)) {
 			player.getHero().getAttributeValue(attribute);
 		}
+		if (player.getSummonAttributeTotals().getCount(attribute) == 0) {
+			return total;
+		}
 		for (Summon summon : player.getSummons()) {
 			if (summon.hasAttribute(attribute)) {
 				total *= summon.getAttributeValue(attribute);
@@ -991,7 +1042,7 @@ public class GameLogic implements Cloneable {
 		return total;
 	}
 
-	public List<GameAction> getValidActions(int playerId) {
+	public ValidActionList getValidActions(int playerId) {
 		Player player = context.getPlayer(playerId);
 		return actionLogic.getValidActions(context, player);
 	}
@@ -1032,7 +1083,9 @@ public class GameLogic implements Cloneable {
 			entity.removeAttribute(Attribute.ENRAGED);
 		}
 
-		context.fireGameEvent(new EnrageChangedEvent(context, entity));
+		if (context.hasGameEventListeners(GameEventType.ENRAGE_CHANGED)) {
+			context.fireGameEvent(new EnrageChangedEvent(context, entity));
+		}
 	}
 
 	private void handleFrozen(Actor actor) {
@@ -1048,6 +1101,9 @@ public class GameLogic implements Cloneable {
 		if (player.getHero().hasAttribute(attr)) {
 			return true;
 		}
+		if (player.getSummonAttributeTotals().getCount(attr) == 0) {
+			return false;
+		}
 		for (Summon summon : player.getSummons()) {
 			if (summon.hasAttribute(attr) && !summon.hasAttribute(Attribute.PENDING_DESTROY)) {
 				return true;
@@ -1097,8 +1153,10 @@ public class GameLogic implements Cloneable {
 		}
 
 		if (success) {
-			HealEvent healEvent = new HealEvent(context, player.getId(), target, healing);
-			context.fireGameEvent(healEvent);
+			if (context.hasGameEventListeners(GameEventType.HEAL)) {
+				HealEvent healEvent = new HealEvent(context, player.getId(), target, healing);
+				context.fireGameEvent(healEvent);
+			}
 			player.getStatistics().heal(healing);
 		}
 	}
@@ -1226,14 +1284,15 @@ public class GameLogic implements Cloneable {
 			return;
 		}
 		if (debugHistory.size() == MAX_HISTORY_ENTRIES) {
-			debugHistory.poll();
+			String oldestEntry = debugHistory.poll();
+			UndoJournal.record(() -> debugHistory.addFirst(oldestEntry));
 		}
 		if (params != null && params.length > 0) {
 			message = message.replaceAll("\\{\\}", "%s");
 			message = String.format(message, params);
 		}
 
-		debugHistory.add(message);
+		addDebugHistory(message);
 	}
 
 	public void markAsDestroyed(Actor target) {
@@ -1261,7 +1320,7 @@ public class GameLogic implements Cloneable {
 			for (IGameEventListener trigger : triggers) {
 				addGameEventListener(player, trigger, summon);
 			}
-			context.fireGameEvent(new BoardChangedEvent(context));
+			boardChanged();
 		} else {
 			markAsDestroyed(summon);
 		}
@@ -1350,8 +1409,75 @@ public class GameLogic implements Cloneable {
 		}
 	}
 
+	/**
+	 * Performs the given action like {@link #performGameAction(int, GameAction)},
+	 * but records all resulting changes so that they can be reverted by
+	 * {@link #unmakeGameAction()}. Calls may be nested; each call must be
+	 * matched by exactly one call to {@link #unmakeGameAction()}, in reverse
+	 * order.
+	 * <p>
+	 * Searches should do this on their own clone of the context: the context
+	 * of a running game may be shown in the gui, which records every event
+	 * and waits for animations, and must never change speculatively.
+	 * <p>
+	 * If the action throws, its changes are rolled back before the exception
+	 * is passed on, so only completed actions have to be unmade.
+	 * 
+	 * @param playerId
+	 *            the id of the player performing the action
+	 * @param action
+	 *            the action to perform
+	 */
+	public void makeGameAction(int playerId, GameAction action) {
+		if (!canMakeGameAction()) {
+			throw new IllegalStateException("Game actions cannot be journaled while another action is being resolved");
+		}
+		if (journal == null) {
+			journal = new UndoJournal();
+		}
+		journal.checkpoint();
+		try {
+			performGameAction(playerId, action);
+		} catch (RuntimeException | Error e) {
+			unmakeGameAction();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reverts all changes made to the game state since the matching call to
+	 * {@link #makeGameAction(int, GameAction)}, including any changes made
+	 * while evaluating the resulting state.
+	 */
+	public void unmakeGameAction() {
+		if (journal == null || journal.getDepth() == 0) {
+			throw new IllegalStateException("There is no game action to unmake");
+		}
+		journal.rollback();
+		// triggers are restored without changing the state version
+		context.invalidateCaches();
+	}
+
+	/**
+	 * Journaled actions are only possible between actions. Behaviours which
+	 * are consulted in the middle of an action (battlecries, discover) have
+	 * to fall back to cloning the context.
+	 */
+	public boolean canMakeGameAction() {
+		return actionDepth == 0 && (UndoJournal.current() == null || UndoJournal.current() == journal);
+	}
+
 	public void performGameAction(int playerId, GameAction action) {
-		debugHistory.add(action.toString());
+		actionDepth++;
+		try {
+			resolveGameAction(playerId, action);
+		} finally {
+			actionDepth--;
+		}
+	}
+
+	private void resolveGameAction(int playerId, GameAction action) {
+		addDebugHistory(action.toString());
 		if (playerId != context.getActivePlayerId()) {
 			logger.warn("Player {} tries to perform an action, but it is not his turn!", context.getPlayer(playerId).getName());
 		}
@@ -1393,18 +1519,22 @@ public class GameLogic implements Cloneable {
 		log("{} plays {}", player.getName(), card);
 
 		player.getStatistics().cardPlayed(card, context.getTurn());
-		CardPlayedEvent cardPlayedEvent = new CardPlayedEvent(context, playerId, card);
-		context.fireGameEvent(cardPlayedEvent);
+		if (context.hasGameEventListeners(GameEventType.PLAY_CARD)) {
+			CardPlayedEvent cardPlayedEvent = new CardPlayedEvent(context, playerId, card);
+			context.fireGameEvent(cardPlayedEvent);
+		}
 
-		if (card.hasAttribute(Attribute.OVERLOAD)) {
+		if (card.hasAttribute(Attribute.OVERLOAD) && context.hasGameEventListeners(GameEventType.OVERLOAD)) {
 			context.fireGameEvent(new OverloadEvent(context, playerId, card));
 		}
 
 		removeCard(playerId, card);
 
 		if ((card.getCardType().isCardType(CardType.SPELL))) {
-			GameEvent spellCastedEvent = new SpellCastedEvent(context, playerId, card);
-			context.fireGameEvent(spellCastedEvent);
+			if (context.hasGameEventListeners(GameEventType.SPELL_CASTED)) {
+				GameEvent spellCastedEvent = new SpellCastedEvent(context, playerId, card);
+				context.fireGameEvent(spellCastedEvent);
+			}
 			if (card.hasAttribute(Attribute.COUNTERED)) {
 				log("{} was countered!", card.getName());
 				return;
@@ -1501,7 +1631,9 @@ public class GameLogic implements Cloneable {
 				Card sourceCard = (Card) source;
 				sourceType = sourceCard.getCardType();
 			}
-			context.fireGameEvent(new DrawCardEvent(context, playerId, card, sourceType, drawn));
+			if (context.hasGameEventListeners(GameEventType.DRAW_CARD)) {
+				context.fireGameEvent(new DrawCardEvent(context, playerId, card, sourceType, drawn));
+			}
 		} else {
 			log("{} has too many cards on his hand, card destroyed: {}", player.getName(), card);
 			discardCard(player, card);
@@ -1562,6 +1694,7 @@ public class GameLogic implements Cloneable {
 		log("All quests for {} have been destroyed", player.getName());
 		// This actually works amazingly
 		for (IGameEventListener quest : getQuests(player)) {
+			UndoJournal.recordTrigger(quest);
 			quest.onRemove(context);
 			context.removeTrigger(quest);
 		}
@@ -1583,7 +1716,7 @@ public class GameLogic implements Cloneable {
 		} else {
 			owner.getGraveyard().add(summon);
 		}
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 	}
 
 	public void removeSecrets(Player player) {
@@ -1591,6 +1724,7 @@ public class GameLogic implements Cloneable {
 		// this only works while Secrets are the only SpellTrigger on the heroes
 		// Web - Lol, it works now.
 		for (IGameEventListener secret : getSecrets(player)) {
+			UndoJournal.recordTrigger(secret);
 			secret.onRemove(context);
 			context.removeTrigger(secret);
 		}
@@ -1609,6 +1743,7 @@ public class GameLogic implements Cloneable {
 				continue;
 			}
 			log("SpellTrigger {} was removed for {}", trigger, entity);
+			UndoJournal.recordTrigger(trigger);
 			trigger.onRemove(context);
 		}
 		context.removeTriggersAssociatedWith(entityReference, removeAuras);
@@ -1642,7 +1777,9 @@ public class GameLogic implements Cloneable {
 		hand.replace(oldCard, newCard);
 		removeCard(playerId, oldCard);
 		newCard.setLocation(CardLocation.HAND);
-		context.fireGameEvent(new DrawCardEvent(context, playerId, newCard, null, false));
+		if (context.hasGameEventListeners(GameEventType.DRAW_CARD)) {
+			context.fireGameEvent(new DrawCardEvent(context, playerId, newCard, null, false));
+		}
 	}
 	
 	public void replaceCardInDeck(int playerId, Card oldCard, Card newCard) {
@@ -1669,6 +1806,26 @@ public class GameLogic implements Cloneable {
 		newCard.setLocation(CardLocation.DECK);
 	}
 
+	/**
+	 * Asks the behaviour of a player to choose an action while another action
+	 * is being resolved. Recording of an active undo journal is suspended
+	 * meanwhile, since the behaviour may simulate on clones of the context.
+	 * 
+	 * @param player
+	 *            the player who has to choose
+	 * @param validActions
+	 *            the actions to choose from
+	 * @return the chosen action
+	 */
+	public GameAction requestAction(Player player, List<GameAction> validActions) {
+		UndoJournal suspendedJournal = UndoJournal.suspend();
+		try {
+			return player.getBehaviour().requestAction(context, player, validActions);
+		} finally {
+			UndoJournal.resume(suspendedJournal);
+		}
+	}
+
 	private void resolveBattlecry(int playerId, Actor actor) {
 		BattlecryAction battlecry = actor.getBattlecry();
 		Player player = context.getPlayer(playerId);
@@ -1694,7 +1851,7 @@ public class GameLogic implements Cloneable {
 			if (attributeExists(Attribute.ALL_RANDOM_FINAL_DESTINATION)) {
 				battlecryAction = battlecryActions.get(random(battlecryActions.size()));
 			} else {
-				battlecryAction = player.getBehaviour().requestAction(context, player, battlecryActions);
+				battlecryAction = requestAction(player, battlecryActions);
 			}
 		} else {
 			battlecryAction = battlecry;
@@ -1749,6 +1906,8 @@ public class GameLogic implements Cloneable {
 	// TODO: circular dependency. Very ugly, refactor!
 	public void setContext(GameContext context) {
 		this.context = context;
+		settledStateVersion = -1;
+		manaCostCache.clear();
 	}
 
 	public void setLoggingEnabled(boolean loggingEnabled) {
@@ -1773,7 +1932,9 @@ public class GameLogic implements Cloneable {
 	}
 
 	public void silence(int playerId, Minion target) {
-		context.fireGameEvent(new SilenceEvent(context, playerId, target));
+		if (context.hasGameEventListeners(GameEventType.SILENCE)) {
+			context.fireGameEvent(new SilenceEvent(context, playerId, target));
+		}
 		final HashSet<Attribute> immuneToSilence = new HashSet<Attribute>();
 		immuneToSilence.add(Attribute.HP);
 		immuneToSilence.add(Attribute.MAX_HP);
@@ -1866,9 +2027,11 @@ public class GameLogic implements Cloneable {
 		if (summon instanceof Minion) {
 			Minion minion = (Minion) summon;
 
-			context.fireGameEvent(new BeforeSummonEvent(context, minion, source));
+			if (context.hasGameEventListeners(GameEventType.BEFORE_SUMMON)) {
+				context.fireGameEvent(new BeforeSummonEvent(context, minion, source));
+			}
 		}
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 		
 		if (resolveBattlecry && summon.getBattlecry() != null) {
 			resolveBattlecry(player.getId(), summon);
@@ -1881,7 +2044,7 @@ public class GameLogic implements Cloneable {
 			context.getEnvironment().remove(Environment.TRANSFORM_REFERENCE);
 		}
 
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 
 		if (summon instanceof Minion) {
 			Minion minion = (Minion) summon;
@@ -1890,11 +2053,15 @@ public class GameLogic implements Cloneable {
 			if (context.getEnvironment().get(Environment.TARGET_OVERRIDE) != null) {
 				Actor actor = (Actor) context.resolveSingleTarget((EntityReference) context.getEnvironment().get(Environment.TARGET_OVERRIDE));
 				context.getEnvironment().remove(Environment.TARGET_OVERRIDE);
-				SummonEvent summonEvent = new SummonEvent(context, actor, source);
-				context.fireGameEvent(summonEvent);
+				if (context.hasGameEventListeners(GameEventType.SUMMON)) {
+					SummonEvent summonEvent = new SummonEvent(context, actor, source);
+					context.fireGameEvent(summonEvent);
+				}
 			} else {
-				SummonEvent summonEvent = new SummonEvent(context, minion, source);
-				context.fireGameEvent(summonEvent);
+				if (context.hasGameEventListeners(GameEventType.SUMMON)) {
+					SummonEvent summonEvent = new SummonEvent(context, minion, source);
+					context.fireGameEvent(summonEvent);
+				}
 			}
 
 			applyAttribute(minion, Attribute.SUMMONING_SICKNESS);
@@ -1927,11 +2094,11 @@ public class GameLogic implements Cloneable {
 			handleEnrage(minion);
 
 			context.getSummonReferenceStack().pop();
-			if (player.getSummons().contains(minion)) {
+			if (player.getSummons().contains(minion) && context.hasGameEventListeners(GameEventType.AFTER_SUMMON)) {
 				context.fireGameEvent(new AfterSummonEvent(context, minion, source));
 			}
 		}
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 		return true;
 	}
 
@@ -2010,7 +2177,7 @@ public class GameLogic implements Cloneable {
 		// Move the old minion to the Set Aside Zone
 		owner.getSetAsideZone().add(summon);
 
-		context.fireGameEvent(new BoardChangedEvent(context));
+		boardChanged();
 	}
 
 	public void useHeroPower(int playerId) {
@@ -2021,7 +2188,9 @@ public class GameLogic implements Cloneable {
 		log("{} uses {}", player.getName(), power);
 		power.markUsed();
 		player.getStatistics().cardPlayed(power, context.getTurn());
-		context.fireGameEvent(new HeroPowerUsedEvent(context, playerId, power));
+		if (context.hasGameEventListeners(GameEventType.HERO_POWER_USED)) {
+			context.fireGameEvent(new HeroPowerUsedEvent(context, playerId, power));
+		}
 	}
 
 }
@@ -0,0 +1,86 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Array backed list which reports structural changes to the recording
+ * {@link UndoJournal}, if any. All modifications, including the ones done by
+ * iterators, sorting and shuffling, end up in {@link #add(int, Object)},
+ * {@link #remove(int)} or {@link #set(int, Object)}. Subclasses can observe
+ * these changes, including the ones done on rollback, through
+ * {@link #elementAdded(int, Object)}, {@link #elementRemoved(int, Object)}
+ * and {@link #elementReplaced(int, Object, Object)}.
+ */
+public class JournaledList<E> extends AbstractList<E> implements RandomAccess {
+
+	private final ArrayList<E> elements;
+
+	public JournaledList() {
+		elements = new ArrayList<E>();
+	}
+
+	public JournaledList(Collection<? extends E> collection) {
+		elements = new ArrayList<E>(collection);
+	}
+
+	@Override
+	public void add(int index, E element) {
+		elements.add(index, element);
+		modCount++;
+		UndoJournal.recordListAdd(this, index);
+		elementAdded(index, element);
+	}
+
+	protected void elementAdded(int index, E element) {
+	}
+
+	protected void elementRemoved(int index, E element) {
+	}
+
+	/**
+	 * Called when an element is overwritten. Note that while a list is being
+	 * sorted or shuffled, the old element may still be contained at another
+	 * index.
+	 */
+	protected void elementReplaced(int index, E oldElement, E element) {
+	}
+
+	@Override
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public E remove(int index) {
+		E element = elements.remove(index);
+		modCount++;
+		UndoJournal.recordListRemove(this, index, element);
+		elementRemoved(index, element);
+		return element;
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E oldElement = elements.set(index, element);
+		UndoJournal.recordListSet(this, index, oldElement);
+		elementReplaced(index, oldElement, element);
+		return oldElement;
+	}
+
+	/**
+	 * Overwrites an element without recording or reporting the change. Only
+	 * meant for replacing an element by an equivalent one.
+	 */
+	protected void replaceUnrecorded(int index, E element) {
+		elements.set(index, element);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+}
@@ -0,0 +1,37 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Hash map which reports {@link #put(Object, Object)},
+ * {@link #remove(Object)} and {@link #clear()} to the recording
+ * {@link UndoJournal}, if any.
+ */
+public class JournaledMap<K, V> extends HashMap<K, V> {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public void clear() {
+		for (K key : new ArrayList<K>(keySet())) {
+			remove(key);
+		}
+	}
+
+	@Override
+	public V put(K key, V value) {
+		UndoJournal.recordMapPut(this, key);
+		return super.put(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (!containsKey(key)) {
+			return null;
+		}
+		UndoJournal.recordMapPut(this, key);
+		return super.remove(key);
+	}
+
+}
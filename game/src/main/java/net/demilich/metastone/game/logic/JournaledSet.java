@@ -0,0 +1,47 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Hash set which reports added and removed elements to the recording
+ * {@link UndoJournal}, if any.
+ */
+public class JournaledSet<E> extends HashSet<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public boolean add(E element) {
+		if (!super.add(element)) {
+			return false;
+		}
+		UndoJournal.recordCollectionAdd(this, element);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		removeAll(new ArrayList<E>(this));
+	}
+
+	@Override
+	public boolean remove(Object element) {
+		if (!super.remove(element)) {
+			return false;
+		}
+		UndoJournal.recordCollectionRemove(this, element);
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> collection) {
+		boolean modified = false;
+		for (Object element : collection) {
+			modified |= remove(element);
+		}
+		return modified;
+	}
+
+}
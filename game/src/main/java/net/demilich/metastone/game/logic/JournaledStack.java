@@ -0,0 +1,27 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.Stack;
+
+/**
+ * Stack which reports {@link #push(Object)} and {@link #pop()} to the
+ * recording {@link UndoJournal}, if any.
+ */
+public class JournaledStack<E> extends Stack<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public synchronized E pop() {
+		E element = super.pop();
+		UndoJournal.recordStackPop(this, element);
+		return element;
+	}
+
+	@Override
+	public E push(E item) {
+		super.push(item);
+		UndoJournal.recordStackPush(this);
+		return item;
+	}
+
+}
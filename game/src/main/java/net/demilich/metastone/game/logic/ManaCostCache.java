@@ -0,0 +1,66 @@
+package net.demilich.metastone.game.logic;
+
+import net.demilich.metastone.game.GameContext;
+import net.demilich.metastone.game.cards.Card;
+
+/**
+ * Remembers the modified mana costs of cards for as long as neither the state
+ * of the game, the active player nor the state of any trigger changes. Costs
+ * are looked up several times per action, e.g. once for each call of
+ * {@link GameContext#getValidActions()}, while they rarely change in
+ * between.
+ *
+ * Only cards which are part of the game may be cached, as changes to other
+ * cards do not show in the state version. The cache is direct mapped by
+ * card id; cards are compared by identity, since choose one cards share
+ * their id with their options.
+ */
+public class ManaCostCache {
+
+	private static final int SIZE = 64;
+
+	public static final int MISSING = Integer.MIN_VALUE;
+
+	private final Card[] cards = new Card[SIZE];
+	private final int[] costs = new int[SIZE];
+
+	private long stateVersion = -1;
+	private long triggerRevision;
+	private int activePlayer;
+
+	public void clear() {
+		stateVersion = -1;
+	}
+
+	/**
+	 * @return the cached cost of the card, or {@link #MISSING}
+	 */
+	public int get(GameContext context, Card card) {
+		if (!isValid(context)) {
+			for (int i = 0; i < SIZE; i++) {
+				cards[i] = null;
+			}
+			stateVersion = context.getStateVersion();
+			triggerRevision = context.getTriggerRevision();
+			activePlayer = context.getActivePlayerId();
+			return MISSING;
+		}
+		int slot = card.getId() & (SIZE - 1);
+		return cards[slot] == card ? costs[slot] : MISSING;
+	}
+
+	private boolean isValid(GameContext context) {
+		return stateVersion == context.getStateVersion() && triggerRevision == context.getTriggerRevision()
+				&& activePlayer == context.getActivePlayerId();
+	}
+
+	public void put(GameContext context, Card card, int cost) {
+		if (!isValid(context)) {
+			return;
+		}
+		int slot = card.getId() & (SIZE - 1);
+		cards[slot] = card;
+		costs[slot] = cost;
+	}
+
+}
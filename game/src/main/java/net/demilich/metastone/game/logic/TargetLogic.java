@@ -70,6 +70,23 @@ public class TargetLogic {
 	}
 
 	public Entity findEntity(GameContext context, EntityReference targetKey) {
+		Entity result = tryFindEntity(context, targetKey);
+		if (result != null) {
+			return result;
+		}
+
+		logger.error("Id " + targetKey.getId() + " not found!");
+		logger.error(context.toString());
+		logger.error(context.getEnvironment().toString());
+		throw new RuntimeException("Target not found exception: " + targetKey);
+	}
+
+	/**
+	 * Looks up an entity like {@link #findEntity(GameContext, EntityReference)}
+	 * does, but returns <code>null</code> for entities which do not exist
+	 * (anymore).
+	 */
+	public Entity tryFindEntity(GameContext context, EntityReference targetKey) {
 		int targetId = targetKey.getId();
 		Entity environmentResult = findInEnvironment(context, targetKey);
 		if (environmentResult != null) {
@@ -83,8 +100,40 @@ public class TargetLogic {
 				return player.getHero();
 			} else if (player.getHero().getWeapon() != null && player.getHero().getWeapon().getId() == targetId) {
 				return player.getHero().getWeapon();
-			} 
+			} else if (player.getHero().getHeroPower().getId() == targetId) {
+				return player.getHero().getHeroPower();
+			}
+		}
+
+		// everything else is part of a zone, which are indexed by id
+		Entity indexResult = context.getEntityIndex().get(targetId);
+		if (indexResult != null) {
+			return indexResult;
+		}
+		Entity result = findInZones(context, targetId);
+		if (result != null) {
+			context.getEntityIndex().put(result);
+		}
+		return result;
+	}
+
+	private Entity findInCards(Player player, int targetId) {
+		Card card = player.getHand().find(targetId);
+		if (card == null) {
+			card = player.getDeck().find(targetId);
+		}
+		return card;
+	}
+
+	private Entity findInEnvironment(GameContext context, EntityReference targetKey) {
+		if (!context.getEventTargetStack().isEmpty() && targetKey == EntityReference.EVENT_TARGET) {
+			return context.resolveSingleTarget(context.getEventTargetStack().peek());
+		}
+		return null;
+	}
 
+	private Entity findInZones(GameContext context, int targetId) {
+		for (Player player : context.getPlayers()) {
 			for (Summon summon : player.getSummons()) {
 				if (summon.getId() == targetId) {
 					return summon;
@@ -107,39 +156,7 @@ public class TargetLogic {
 		if (cardResult == null) {
 			cardResult = findInCards(context.getPlayer2(), targetId);
 		}
-		if (cardResult != null) {
-			return cardResult;
-		}
-
-		logger.error("Id " + targetId + " not found!");
-		logger.error(context.toString());
-		logger.error(context.getEnvironment().toString());
-		throw new RuntimeException("Target not found exception: " + targetKey);
-	}
-
-	private Entity findInCards(Player player, int targetId) {
-		if (player.getHero().getHeroPower().getId() == targetId) {
-			return player.getHero().getHeroPower();
-		}
-		for (Card card : player.getHand()) {
-			if (card.getId() == targetId) {
-				return card;
-			}
-		}
-		for (Card card : player.getDeck()) {
-			if (card.getId() == targetId) {
-				return card;
-			}
-		}
-
-		return null;
-	}
-
-	private Entity findInEnvironment(GameContext context, EntityReference targetKey) {
-		if (!context.getEventTargetStack().isEmpty() && targetKey == EntityReference.EVENT_TARGET) {
-			return context.resolveSingleTarget(context.getEventTargetStack().peek());
-		}
-		return null;
+		return cardResult;
 	}
 
 	private List<Entity> getEntities(GameContext context, Player player, TargetSelection targetRequirement) {
@@ -0,0 +1,289 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import net.demilich.metastone.game.Attribute;
+import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.spells.trigger.IGameEventListener;
+
+/**
+ * Records every change made to a game state so that it can be rolled back in
+ * place. A journal is bound to the current thread while it is recording;
+ * entities, zones and triggers report their changes to it through the static
+ * record methods, which do nothing while no journal is recording.
+ *
+ * Entries are stored in parallel arrays which are reused between
+ * checkpoints, so walking a search tree does not allocate journal entries.
+ */
+public class UndoJournal {
+
+	private static final ThreadLocal<UndoJournal> recordingJournal = new ThreadLocal<>();
+
+	private static final Object ABSENT = new Object();
+
+	private static final byte ATTRIBUTE = 0;
+	private static final byte LIST_ADD = 1;
+	private static final byte LIST_REMOVE = 2;
+	private static final byte LIST_SET = 3;
+	private static final byte MAP_PUT = 4;
+	private static final byte COLLECTION_ADD = 5;
+	private static final byte COLLECTION_REMOVE = 6;
+	private static final byte STACK_PUSH = 7;
+	private static final byte STACK_POP = 8;
+	private static final byte TRIGGER = 9;
+	private static final byte CUSTOM = 10;
+	private static final byte INT_ATTRIBUTE = 11;
+
+	private byte[] operations = new byte[256];
+	private Object[] targets = new Object[256];
+	private Object[] keys = new Object[256];
+	private Object[] values = new Object[256];
+	private int[] indices = new int[256];
+	private int size;
+
+	private int[] checkpoints = new int[16];
+	private int depth;
+
+	public static UndoJournal current() {
+		return recordingJournal.get();
+	}
+
+	public static void recordAttribute(Entity entity, Attribute attribute, boolean present, Object oldValue) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(ATTRIBUTE, entity, attribute, present ? oldValue : ABSENT, 0);
+		}
+	}
+
+	/**
+	 * Records the change of a numeric attribute which was present before,
+	 * without boxing its old value.
+	 */
+	public static void recordAttribute(Entity entity, Attribute attribute, int oldValue) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(INT_ATTRIBUTE, entity, attribute, null, oldValue);
+		}
+	}
+
+	public static void recordListAdd(List<?> list, int index) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(LIST_ADD, list, null, null, index);
+		}
+	}
+
+	public static void recordListRemove(List<?> list, int index, Object oldElement) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(LIST_REMOVE, list, null, oldElement, index);
+		}
+	}
+
+	public static void recordListSet(List<?> list, int index, Object oldElement) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(LIST_SET, list, null, oldElement, index);
+		}
+	}
+
+	public static void recordMapPut(Map<?, ?> map, Object key) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(MAP_PUT, map, key, map.containsKey(key) ? map.get(key) : ABSENT, 0);
+		}
+	}
+
+	public static void recordCollectionAdd(Collection<?> collection, Object element) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(COLLECTION_ADD, collection, null, element, 0);
+		}
+	}
+
+	public static void recordCollectionRemove(Collection<?> collection, Object element) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(COLLECTION_REMOVE, collection, null, element, 0);
+		}
+	}
+
+	public static void recordStackPush(Stack<?> stack) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(STACK_PUSH, stack, null, null, 0);
+		}
+	}
+
+	public static void recordStackPop(Stack<?> stack, Object element) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(STACK_POP, stack, null, element, 0);
+		}
+	}
+
+	/**
+	 * Saves the current state of a trigger before it is modified. Triggers
+	 * keep their identity on rollback; the saved copy is written back into
+	 * the original instance.
+	 */
+	public static void recordTrigger(IGameEventListener trigger) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(TRIGGER, trigger, null, trigger.clone(), 0);
+		}
+	}
+
+	/**
+	 * Records an arbitrary undo step. Meant for rarely changing fields where
+	 * a dedicated entry type is not worth it.
+	 */
+	public static void record(Runnable undo) {
+		UndoJournal journal = current();
+		if (journal != null) {
+			journal.append(CUSTOM, undo, null, null, 0);
+		}
+	}
+
+	/**
+	 * Temporarily stops recording on the current thread, e.g. while a
+	 * behaviour is consulted in the middle of an action. Pass the returned
+	 * journal to {@link #resume(UndoJournal)} afterwards.
+	 */
+	public static UndoJournal suspend() {
+		UndoJournal journal = recordingJournal.get();
+		if (journal != null) {
+			recordingJournal.remove();
+		}
+		return journal;
+	}
+
+	public static void resume(UndoJournal journal) {
+		if (journal != null) {
+			recordingJournal.set(journal);
+		}
+	}
+
+	private void append(byte operation, Object target, Object key, Object value, int index) {
+		if (size == operations.length) {
+			int capacity = size * 2;
+			operations = Arrays.copyOf(operations, capacity);
+			targets = Arrays.copyOf(targets, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+			indices = Arrays.copyOf(indices, capacity);
+		}
+		operations[size] = operation;
+		targets[size] = target;
+		keys[size] = key;
+		values[size] = value;
+		indices[size] = index;
+		size++;
+	}
+
+	/**
+	 * Opens a new checkpoint and starts recording on the current thread.
+	 */
+	public void checkpoint() {
+		UndoJournal recording = recordingJournal.get();
+		if (recording != null && recording != this) {
+			throw new IllegalStateException("Another undo journal is already recording on this thread");
+		}
+		if (depth == checkpoints.length) {
+			checkpoints = Arrays.copyOf(checkpoints, depth * 2);
+		}
+		checkpoints[depth++] = size;
+		recordingJournal.set(this);
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public boolean isRecording() {
+		return recordingJournal.get() == this;
+	}
+
+	/**
+	 * Undoes all changes recorded since the most recent checkpoint. Recording
+	 * stops once the outermost checkpoint has been rolled back.
+	 */
+	public void rollback() {
+		if (depth == 0) {
+			throw new IllegalStateException("Undo journal has no open checkpoint");
+		}
+		int checkpoint = checkpoints[--depth];
+		UndoJournal suspended = suspend();
+		try {
+			while (size > checkpoint) {
+				size--;
+				undo(operations[size], targets[size], keys[size], values[size], indices[size]);
+				targets[size] = null;
+				keys[size] = null;
+				values[size] = null;
+			}
+		} finally {
+			if (depth > 0) {
+				resume(suspended);
+			}
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void undo(byte operation, Object target, Object key, Object value, int index) {
+		switch (operation) {
+		case ATTRIBUTE:
+			Entity entity = (Entity) target;
+			if (value == ABSENT) {
+				entity.removeAttribute((Attribute) key);
+			} else {
+				entity.setAttribute((Attribute) key, value);
+			}
+			break;
+		case INT_ATTRIBUTE:
+			((Entity) target).setAttribute((Attribute) key, index);
+			break;
+		case LIST_ADD:
+			((List) target).remove(index);
+			break;
+		case LIST_REMOVE:
+			((List) target).add(index, value);
+			break;
+		case LIST_SET:
+			((List) target).set(index, value);
+			break;
+		case MAP_PUT:
+			if (value == ABSENT) {
+				((Map) target).remove(key);
+			} else {
+				((Map) target).put(key, value);
+			}
+			break;
+		case COLLECTION_ADD:
+			((Collection) target).remove(value);
+			break;
+		case COLLECTION_REMOVE:
+			((Collection) target).add(value);
+			break;
+		case STACK_PUSH:
+			((Stack) target).pop();
+			break;
+		case STACK_POP:
+			((Stack) target).push(value);
+			break;
+		case TRIGGER:
+			((IGameEventListener) target).restoreState((IGameEventListener) value);
+			break;
+		case CUSTOM:
+			((Runnable) target).run();
+			break;
+		default:
+			throw new IllegalStateException("Unknown journal operation " + operation);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package net.demilich.metastone.game.logic;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import net.demilich.metastone.game.GameContext;
+import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.GameAction;
+import net.demilich.metastone.game.entities.Entity;
+
+/**
+ * Read only list of the actions a player can take. Actions which need a
+ * target are stored once along with their valid targets; the copy of the
+ * action for a specific target is only created when it is accessed, so a
+ * behaviour which only looks at a few of the actions does not pay for
+ * copying all of them. Accessing the same index twice returns the same
+ * action.
+ */
+public class ValidActionList extends AbstractList<GameAction> implements RandomAccess {
+
+	private final List<GameAction> templates = new ArrayList<>();
+	// valid targets of each template, or null for actions without target
+	private final List<List<Entity>> targets = new ArrayList<>();
+	// index of the first action after each template
+	private int[] ends = new int[8];
+	private GameAction[] actions;
+	private int size;
+
+	void add(GameAction action, List<Entity> validTargets) {
+		int count = validTargets != null ? validTargets.size() : 1;
+		if (count == 0) {
+			return;
+		}
+		if (templates.size() == ends.length) {
+			ends = Arrays.copyOf(ends, ends.length * 2);
+		}
+		templates.add(action);
+		targets.add(validTargets);
+		size += count;
+		ends[templates.size() - 1] = size;
+		actions = null;
+	}
+
+	/**
+	 * Writes the codes of the actions to the given array without copying any
+	 * action, see {@link ActionCodec}. Only as many codes as fit are written.
+	 * 
+	 * @return the number of actions
+	 */
+	public int encode(GameContext context, Player player, int[] codes) {
+		int index = 0;
+		for (int group = 0; group < templates.size(); group++) {
+			GameAction template = templates.get(group);
+			List<Entity> validTargets = targets.get(group);
+			if (validTargets == null) {
+				if (index < codes.length) {
+					codes[index] = ActionCodec.encode(context, player, template);
+				}
+				index++;
+				continue;
+			}
+			for (Entity target : validTargets) {
+				if (index < codes.length) {
+					codes[index] = ActionCodec.encode(context, player, template, target);
+				}
+				index++;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public GameAction get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (actions == null) {
+			actions = new GameAction[size];
+		}
+		GameAction action = actions[index];
+		if (action == null) {
+			int group = Arrays.binarySearch(ends, 0, templates.size(), index);
+			// the search returns the group ending at index, which is the next one
+			group = group >= 0 ? group + 1 : -group - 1;
+			List<Entity> validTargets = targets.get(group);
+			if (validTargets == null) {
+				action = templates.get(group);
+			} else {
+				int start = group > 0 ? ends[group - 1] : 0;
+				action = templates.get(group).clone();
+				action.setTarget(validTargets.get(index - start));
+			}
+			actions[index] = action;
+		}
+		return action;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
@@ -0,0 +1,127 @@
+package net.demilich.metastone.game.logic;
+
+import net.demilich.metastone.game.Attribute;
+
+/**
+ * 64 bit Zobrist key of a game state, maintained incrementally.
+ *
+ * Every entity keeps an xor of its features (name, attributes and a few
+ * plain fields) in {@link net.demilich.metastone.game.entities.Entity}. Once
+ * the entity is part of a zone of a game, it adds its contribution, which
+ * combines these features with the zone it is in, to the key of that game.
+ * Contributions are summed rather than xored, so that identical cards in the
+ * same zone do not cancel each other out.
+ *
+ * Instead of a table of random numbers, the random value of a feature is
+ * derived with the SplitMix64 finalizer, which allows for unbounded
+ * attribute values.
+ */
+public class ZobristKey {
+
+	public static final int ZONE_PLAYER = 1;
+	public static final int ZONE_HERO = 2;
+	public static final int ZONE_HERO_POWER = 3;
+	public static final int ZONE_WEAPON = 4;
+	public static final int ZONE_HAND = 5;
+	public static final int ZONE_DECK = 6;
+	public static final int ZONE_BOARD = 7;
+	public static final int ZONE_GRAVEYARD = 8;
+	public static final int ZONE_SET_ASIDE = 9;
+	public static final int ZONE_TRIGGERS = 10;
+
+	// features which are not attributes use negative ids
+	public static final int FEATURE_NAME = -1;
+	public static final int FEATURE_MANA = -2;
+	public static final int FEATURE_MAX_MANA = -3;
+	public static final int FEATURE_LOCKED_MANA = -4;
+	public static final int FEATURE_WEAPON_ACTIVE = -5;
+	public static final int FEATURE_ACTIVE_PLAYER = -6;
+	public static final int FEATURE_HERO_POWER_USED = -7;
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private long value;
+	private long modifications;
+
+	public static long hash(long value) {
+		long z = value + GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Numeric attributes with a value of 0 hash like absent attributes,
+	 * which is how the game logic treats them.
+	 */
+	public static long hashAttribute(Attribute attribute, Object value) {
+		if (value instanceof Integer && (Integer) value == 0) {
+			return 0;
+		}
+		return hashFeature(attribute.ordinal(), value);
+	}
+
+	public static long hashAttribute(Attribute attribute, int value) {
+		if (value == 0) {
+			return 0;
+		}
+		return hashFeature(attribute.ordinal(), value);
+	}
+
+	public static long hashFeature(int feature, Object value) {
+		return hash(((long) feature << 32) ^ (hashValue(value) & 0xffffffffL));
+	}
+
+	public static long hashFeature(int feature, int value) {
+		return hash(((long) feature << 32) ^ (value & 0xffffffffL));
+	}
+
+	public static long hashZone(int zone, int owner, int position) {
+		return hash(hash(((long) zone << 32) ^ (owner & 0xffffffffL)) + position);
+	}
+
+	/**
+	 * Values which are immutable are hashed by content. Anything else is
+	 * hashed by identity; attribute values are shared between clones of a
+	 * game, and changing a value in place must not change its hash.
+	 */
+	private static int hashValue(Object value) {
+		if (value == null) {
+			return 0;
+		} else if (value instanceof Integer) {
+			return (Integer) value;
+		} else if (value instanceof Boolean) {
+			return (Boolean) value ? 1 : 2;
+		} else if (value instanceof String) {
+			return value.hashCode();
+		} else if (value instanceof Enum) {
+			Enum<?> enumValue = (Enum<?>) value;
+			return enumValue.getDeclaringClass().getName().hashCode() * 31 + enumValue.ordinal();
+		}
+		return System.identityHashCode(value);
+	}
+
+	public void add(long contribution) {
+		value += contribution;
+		modifications++;
+	}
+
+	/**
+	 * Returns the number of changes made to the key so far. Unlike the key,
+	 * the count never returns to an earlier value, so it tells reliably
+	 * whether the game state changed since it was last read.
+	 */
+	public long getModificationCount() {
+		return modifications;
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	public void remove(long contribution) {
+		value -= contribution;
+		modifications++;
+	}
+
+}
@@ -25,7 +25,7 @@ public class AddQuestSpell extends Spell {
 
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
-		Quest quest = (Quest) desc.get(SpellArg.QUEST);
+		Quest quest = (Quest) ((Quest) desc.get(SpellArg.QUEST)).clone();
 		context.getLogic().playQuest(player, quest);
 	}
 
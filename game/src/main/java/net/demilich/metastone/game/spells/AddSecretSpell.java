@@ -25,7 +25,7 @@ public class AddSecretSpell extends Spell {
 
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
-		Secret secret = (Secret) desc.get(SpellArg.SECRET);
+		Secret secret = (Secret) ((Secret) desc.get(SpellArg.SECRET)).clone();
 		context.getLogic().playSecret(player, secret);
 	}
 
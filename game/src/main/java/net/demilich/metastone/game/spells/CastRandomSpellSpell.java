@@ -13,8 +13,8 @@ import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.actions.BattlecryAction;
 import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.cards.ChooseOneCard;
 import net.demilich.metastone.game.cards.SpellCard;
@@ -29,7 +29,7 @@ import net.demilich.metastone.game.targeting.TargetSelection;
 
 public class CastRandomSpellSpell extends Spell {
 	
-	Logger logger = LoggerFactory.getLogger(CastRandomSpellSpell.class);
+	private static final Logger logger = LoggerFactory.getLogger(CastRandomSpellSpell.class);
 
 	public static SpellDesc create(int value) {
 		Map<SpellArg, Object> arguments = SpellDesc.build(CastRandomSpellSpell.class);
@@ -41,16 +41,17 @@ public class CastRandomSpellSpell extends Spell {
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
 		// This spell is crazy.
 		CardFilter filter = (CardFilter) desc.get(SpellArg.CARD_FILTER);
-		CardCollection spells = CardCatalogue.query(context.getDeckFormat(), CardType.SPELL);
 		CardSource cardSource = (CardSource) desc.get(SpellArg.CARD_SOURCE);
-		if (cardSource != null) {
-			spells = cardSource.getCards(context, player);
-		}
+		CardPool spellPool = null;
 		CardCollection filteredSpells = new CardCollection();
-		for (Card spell : spells) {
-			if (filter == null || filter.matches(context, player, spell)) {
-				filteredSpells.add(spell);
+		if (cardSource != null) {
+			for (Card spell : cardSource.getCards(context, player)) {
+				if (filter == null || filter.matches(context, player, spell)) {
+					filteredSpells.add(spell);
+				}
 			}
+		} else {
+			spellPool = SpellUtils.getCardPool(context, player, CardType.SPELL, filter);
 		}
 		// Straight up insane.
 		
@@ -70,7 +71,7 @@ public class CastRandomSpellSpell extends Spell {
 			if (!player.getSummons().contains(source)) {
 				break;
 			}
-			Card randomCard = filteredSpells.getRandom();
+			Card randomCard = spellPool != null ? spellPool.getRandom().clone() : filteredSpells.getRandom();
 			logger.debug("Yogg-Saron chooses to play " + randomCard.getName());
 			CardRevealedEvent revealEvent = new CardRevealedEvent(context, player.getId(), randomCard, 1.2 * (i + 1));
 			context.fireGameEvent(revealEvent);
@@ -26,7 +26,7 @@ import net.demilich.metastone.game.targeting.TargetSelection;
 
 public class CreateCardSpell extends Spell {
 	
-	Logger logger = LoggerFactory.getLogger(CreateCardSpell.class);
+	private static final Logger logger = LoggerFactory.getLogger(CreateCardSpell.class);
 
 	private SpellDesc[] discoverCardParts(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
 		List<SpellDesc> spells = new ArrayList<SpellDesc>();
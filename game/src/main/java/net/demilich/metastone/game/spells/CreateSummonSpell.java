@@ -19,7 +19,7 @@ import net.demilich.metastone.game.spells.desc.SpellDesc;
 
 public class CreateSummonSpell extends Spell {
 	
-	Logger logger = LoggerFactory.getLogger(CreateSummonSpell.class);
+	private static final Logger logger = LoggerFactory.getLogger(CreateSummonSpell.class);
 
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
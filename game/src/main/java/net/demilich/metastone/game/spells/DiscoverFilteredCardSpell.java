@@ -5,7 +5,6 @@ import java.util.Map;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.spells.desc.SpellArg;
@@ -22,39 +21,38 @@ public class DiscoverFilteredCardSpell extends Spell {
 		arguments.put(SpellArg.SPELL, spell);
 		return new SpellDesc(arguments);
 	}
+
+	private CardCollection getMatchingCards(GameContext context, Player player, CardCollection cards, EntityFilter filter) {
+		if (cards == null) {
+			return SpellUtils.getCardPool(context, player, null, filter).toCollection();
+		}
+		CardCollection result = new CardCollection();
+		for (Card card : cards) {
+			if (filter == null || filter.matches(context, player, card)) {
+				result.add(card);
+			}
+		}
+		return result;
+	}
 	
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
 		EntityFilter cardFilter = (EntityFilter) desc.get(SpellArg.CARD_FILTER);
 		EntityFilter[] cardFilters = (EntityFilter[]) desc.get(SpellArg.CARD_FILTERS);
-		CardCollection cards = CardCatalogue.query(context.getDeckFormat());
 		CardSource cardSource = (CardSource) desc.get(SpellArg.CARD_SOURCE);
-		if (cardSource != null) {
-			cards = cardSource.getCards(context, player);
-		}
+		CardCollection cards = cardSource != null ? cardSource.getCards(context, player) : null;
 		int count = desc.getValue(SpellArg.HOW_MANY, context, player, target, source, 3);
 		CardCollection discoverCards = new CardCollection();
 
 		if (cardFilters != null) {
 			for (EntityFilter filter : cardFilters) {
-				CardCollection result = new CardCollection();
-				for (Card card : cards) {
-					if (filter == null || filter.matches(context, player, card)) {
-						result.add(card);
-					}
-				}
-				
+				CardCollection result = getMatchingCards(context, player, cards, filter);
 				if (!result.isEmpty()) {
 					discoverCards.add(result.getRandom());
 				}
 			}
 		} else {
-			CardCollection result = new CardCollection();
-			for (Card card : cards) {
-				if (cardFilter == null || cardFilter.matches(context, player, card)) {
-					result.add(card);
-				}
-			}
+			CardCollection result = getMatchingCards(context, player, cards, cardFilter);
 			discoverCards = new CardCollection();
 			
 			for (int i = 0; i < count; i++) {
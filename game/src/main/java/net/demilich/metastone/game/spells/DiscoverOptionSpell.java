@@ -18,7 +18,7 @@ import net.demilich.metastone.game.targeting.EntityReference;
 
 public class DiscoverOptionSpell extends Spell {
 	
-	Logger logger = LoggerFactory.getLogger(DiscoverOptionSpell.class);
+	private static final Logger logger = LoggerFactory.getLogger(DiscoverOptionSpell.class);
 	
 	public static SpellDesc create(EntityReference target, SpellDesc spell) {
 		Map<SpellArg, Object> arguments = SpellDesc.build(DiscoverOptionSpell.class);
@@ -1,12 +1,14 @@
 package net.demilich.metastone.game.spells;
 
 import java.util.Map;
+import java.util.function.Predicate;
 
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.spells.desc.SpellArg;
@@ -23,6 +25,10 @@ public class DiscoverRandomCardSpell extends Spell {
 		arguments.put(SpellArg.SPELL, spell);
 		return new SpellDesc(arguments);
 	}
+
+	private static CardPool getPool(GameContext context, HeroClass heroClass) {
+		return CardCatalogue.getPool(context.getDeckFormat(), new CardPool.Query(null, null, heroClass, null, null, null));
+	}
 	
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
@@ -41,25 +47,18 @@ public class DiscoverRandomCardSpell extends Spell {
 				heroClass = SpellUtils.getRandomHeroClass();
 			}
 		}
-		CardCollection cards = new CardCollection();
+		Predicate<Card> filter = card -> cardFilter.matches(context, player, card);
+		CardCollection result = new CardCollection();
 		if (heroClass == HeroClass.ANY) {
-			CardCollection classCards = CardCatalogue.query(context.getDeckFormat());
-			cards.addAll(classCards);
+			result.addAll(getPool(context, null).filter(filter).toCollection());
 		} else {
-			cards.addAll(CardCatalogue.query(context.getDeckFormat(), HeroClass.ANY));
-			CardCollection classCards = CardCatalogue.query(context.getDeckFormat(), heroClass);
+			result.addAll(getPool(context, HeroClass.ANY).filter(filter).toCollection());
+			CardCollection classCards = getPool(context, heroClass).filter(filter).toCollection();
 			for (int i = 0; i < 4; i++) {
-				cards.addAll(classCards);
+				result.addAll(classCards);
 			}
 		}
-		
-		CardCollection result = new CardCollection();
-		for (Card card : cards) {
-			if (cardFilter.matches(context, player, card)) {
-				result.add(card);
-			}
-		}
-		cards = new CardCollection();
+		CardCollection cards = new CardCollection();
 		
 		int count = desc.getValue(SpellArg.HOW_MANY, context, player, target, source, 3);
 		for (int i = 0; i < count; i++) {
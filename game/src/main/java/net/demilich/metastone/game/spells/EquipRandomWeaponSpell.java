@@ -5,7 +5,7 @@ import java.util.Map;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.CardCatalogue;
-import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.cards.WeaponCard;
 import net.demilich.metastone.game.entities.Entity;
@@ -25,8 +25,8 @@ public class EquipRandomWeaponSpell extends Spell {
 
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
-		CardCollection allWeapons = CardCatalogue.query(context.getDeckFormat(), CardType.WEAPON);
-		WeaponCard weaponCard = (WeaponCard) allWeapons.getRandom();
+		CardPool allWeapons = CardCatalogue.getPool(context.getDeckFormat(), new CardPool.Query(CardType.WEAPON, null, null, null, null, null));
+		WeaponCard weaponCard = (WeaponCard) allWeapons.getRandom().clone();
 		Weapon weapon = weaponCard.getWeapon();
 		weapon.setBattlecry(null);
 
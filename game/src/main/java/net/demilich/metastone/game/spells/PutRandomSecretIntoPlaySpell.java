@@ -47,7 +47,7 @@ public class PutRandomSecretIntoPlaySpell extends Spell {
 				return;
 			}
 			SpellDesc secretSpellDesc = secretCard.getSpell();
-			Secret secret = (Secret) secretSpellDesc.get(SpellArg.SECRET);
+			Secret secret = (Secret) ((Secret) secretSpellDesc.get(SpellArg.SECRET)).clone();
 			context.getLogic().playSecret(player, secret, false);
 			context.getLogic().removeCardFromDeck(player.getId(), secretCard);
 
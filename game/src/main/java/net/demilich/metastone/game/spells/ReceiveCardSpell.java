@@ -3,8 +3,7 @@ package net.demilich.metastone.game.spells;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
-import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.spells.desc.SpellArg;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
@@ -17,14 +16,8 @@ public class ReceiveCardSpell extends Spell {
 		EntityFilter cardFilter = (EntityFilter) desc.get(SpellArg.CARD_FILTER);
 		int count = desc.getValue(SpellArg.VALUE, context, player, target, source, 1);
 		if (cardFilter != null) {
-			CardCollection cards = CardCatalogue.query(context.getDeckFormat());
-			CardCollection result = new CardCollection();
+			CardPool result = SpellUtils.getCardPool(context, player, null, cardFilter);
 			String replacementCard = (String) desc.get(SpellArg.CARD);
-			for (Card card : cards) {
-				if (cardFilter.matches(context, player, card)) {
-					result.add(card);
-				}
-			}
 			for (int i = 0; i < count; i++) {
 				Card card = null;
 				if (!result.isEmpty()) {
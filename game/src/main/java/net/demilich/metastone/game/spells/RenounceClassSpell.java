@@ -7,6 +7,7 @@ import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.heroes.powers.HeroPower;
@@ -31,13 +32,8 @@ public class RenounceClassSpell extends Spell {
 		
 		HeroClass renouncedClass = (HeroClass) cardFilter.getArg(FilterArg.HERO_CLASS);
 		HeroClass rebornClass = SpellUtils.getRandomHeroClassExcept(renouncedClass);
-		CardCollection cards = CardCatalogue.query(context.getDeckFormat());
-		CardCollection result = new CardCollection();
-		for (Card card : cards) {
-			if (card.getHeroClass() == rebornClass) {
-				result.add(card);
-			}
-		}
+		CardPool result = CardCatalogue.getPool(context.getDeckFormat(), new CardPool.Query(null, null, null, null, null, null))
+				.filter(card -> card.getHeroClass() == rebornClass);
 		
 		int manaCostModifier = desc.getValue(SpellArg.MANA_MODIFIER, context, player, target, source, 0);
 		
@@ -4,8 +4,7 @@ import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
-import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.spells.desc.SpellArg;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
@@ -17,14 +16,8 @@ public class ReplaceCardLocationSpell extends Spell {
 	@Override
 	protected void onCast(GameContext context, Player player, SpellDesc desc, Entity source, Entity target) {
 		EntityFilter cardFilter = (EntityFilter) desc.get(SpellArg.CARD_FILTER);
-		CardCollection cards = CardCatalogue.query(context.getDeckFormat());
-		CardCollection result = new CardCollection();
+		CardPool result = SpellUtils.getCardPool(context, player, null, cardFilter);
 		String replacementCard = (String) desc.get(SpellArg.CARD);
-		for (Card card : cards) {
-			if (cardFilter.matches(context, player, card)) {
-				result.add(card);
-			}
-		}
 		
 		CardLocation location = (CardLocation) desc.get(SpellArg.CARD_LOCATION);
 		int count = 0;
@@ -61,13 +54,15 @@ public class ReplaceCardLocationSpell extends Spell {
 				} else if (replacementCard != null) {
 					card = context.getCardById(replacementCard);
 				}
+				if (card == null) {
+					continue;
+				}
 
+				card = card.clone();
 				if (manaCostModifier != 0) {
 					card.setAttribute(Attribute.MANA_COST_MODIFIER, manaCostModifier);
 				}
-				if (card != null) {
-					context.getLogic().receiveCard(player.getId(), card.clone());
-				}
+				context.getLogic().receiveCard(player.getId(), card);
 			}
 			break;
 		}
@@ -3,8 +3,6 @@ package net.demilich.metastone.game.spells;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
-import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.spells.desc.SpellArg;
@@ -20,14 +18,7 @@ public class ShuffleToDeckSpell extends Spell {
 			card = ((Actor) target).getSourceCard().getCopy();
 		} else if (desc.contains(SpellArg.CARD_FILTER)){
 			EntityFilter cardFilter = (EntityFilter) desc.get(SpellArg.CARD_FILTER);
-			CardCollection cards = CardCatalogue.query(context.getDeckFormat());
-			CardCollection result = new CardCollection();
-			for (Card cardResult : cards) {
-				if (cardFilter.matches(context, player, cardResult)) {
-					result.add(cardResult);
-				}
-			}
-			card = result.getRandom();
+			card = SpellUtils.getCardPool(context, player, null, cardFilter).getRandom();
 		} else {
 			String cardId = (String) desc.get(SpellArg.CARD);
 			card = context.getCardById(cardId);						
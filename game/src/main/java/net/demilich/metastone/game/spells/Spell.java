@@ -6,7 +6,6 @@ import net.demilich.metastone.game.Environment;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.entities.Entity;
-import net.demilich.metastone.game.spells.desc.SpellArg;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
 
@@ -23,7 +22,7 @@ public abstract class Spell {
 		List<Entity> validTargets = SpellUtils.getValidTargets(context, player, targets, targetFilter);
 		// there is at least one valid target and the RANDOM_TARGET flag is set,
 		// pick one randomly
-		if (validTargets.size() > 0 && desc.getBool(SpellArg.RANDOM_TARGET)) {
+		if (validTargets.size() > 0 && desc.isRandomTarget()) {
 			Entity target = SpellUtils.getRandomTarget(validTargets);
 			castForPlayer(context, player, desc, source, target);
 		} else {
@@ -13,6 +13,7 @@ import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.Entity;
@@ -23,6 +24,7 @@ import net.demilich.metastone.game.entities.minions.RelativeToSource;
 import net.demilich.metastone.game.entities.minions.Summon;
 import net.demilich.metastone.game.spells.desc.SpellArg;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
+import net.demilich.metastone.game.spells.desc.filter.CardFilter;
 import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
 import net.demilich.metastone.game.spells.desc.filter.Operation;
 import net.demilich.metastone.game.targeting.EntityReference;
@@ -78,6 +80,25 @@ public class SpellUtils {
 		return card;
 	}
 
+	/**
+	 * Returns the catalogue cards of the current format which are of the given
+	 * card type and match the filter. The cards are shared and have to be
+	 * copied before they are added to the game.
+	 */
+	public static CardPool getCardPool(GameContext context, Player player, CardType cardType, EntityFilter filter) {
+		CardPool.Query query = null;
+		if (filter == null) {
+			query = new CardPool.Query(cardType, null, null, null, null, null);
+		} else if (filter instanceof CardFilter) {
+			query = ((CardFilter) filter).toPoolQuery(context, player, cardType);
+		}
+		if (query != null) {
+			return CardCatalogue.getPool(context.getDeckFormat(), query);
+		}
+		CardPool pool = CardCatalogue.getPool(context.getDeckFormat(), new CardPool.Query(cardType, null, null, null, null, null));
+		return pool.filter(card -> filter.matches(context, player, card));
+	}
+
 	public static Card[] getCards(GameContext context, SpellDesc spell) {
 		String[] cardNames = null;
 		if (spell.contains(SpellArg.CARDS)) {
@@ -110,7 +131,7 @@ public class SpellUtils {
 		if (context.getLogic().attributeExists(Attribute.ALL_RANDOM_YOGG_ONLY_FINAL_DESTINATION)) {
 			return (DiscoverAction) discoverActions.get(context.getLogic().random(discoverActions.size()));
 		} else {
-			return (DiscoverAction) player.getBehaviour().requestAction(context, player, discoverActions);
+			return (DiscoverAction) context.getLogic().requestAction(player, discoverActions);
 		}
 	}
 
@@ -127,7 +148,7 @@ public class SpellUtils {
 		if (context.getLogic().attributeExists(Attribute.ALL_RANDOM_YOGG_ONLY_FINAL_DESTINATION)) {
 			return (DiscoverAction) discoverActions.get(context.getLogic().random(discoverActions.size()));
 		} else {
-			return (DiscoverAction) player.getBehaviour().requestAction(context, player, discoverActions);
+			return (DiscoverAction) context.getLogic().requestAction(player, discoverActions);
 		}
 	}
 
@@ -8,6 +8,7 @@ import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.logic.GameLogic;
+import net.demilich.metastone.game.logic.UndoJournal;
 import net.demilich.metastone.game.spells.desc.SpellArg;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.spells.trigger.IGameEventListener;
@@ -42,7 +43,8 @@ public class StealRandomSecretSpell extends Spell {
 
 		if (!validSecrets.isEmpty()) {
 			Secret secret = validSecrets.get(context.getLogic().random(validSecrets.size()));
-			secret.setHost(player.getHero());
+			UndoJournal.recordTrigger(secret);
+			context.moveTrigger(secret, player.getHero());
 			secret.setOwner(player.getId());
 			player.getSecrets().add(secret.getSource().getCardId());
 			opponent.getSecrets().remove(secret.getSource().getCardId());
@@ -5,7 +5,6 @@ import java.util.Map;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.cards.MinionCard;
@@ -39,16 +38,11 @@ public class SummonOneOneCopySpell extends Spell {
 						relevantMinions.add(card);
 					}
 				}
+				minionCard = (MinionCard) relevantMinions.getRandom();
 			} else {
-				CardCollection allMinions = CardCatalogue.query(context.getDeckFormat(), CardType.MINION);
-				relevantMinions = new CardCollection();
-				for (Card card : allMinions) {
-					if (cardFilter.matches(context, player, card)) {
-						relevantMinions.add(card);
-					}
-				}
+				Card card = SpellUtils.getCardPool(context, player, CardType.MINION, cardFilter).getRandom();
+				minionCard = card != null ? (MinionCard) card.clone() : null;
 			}
-			minionCard = (MinionCard) relevantMinions.getRandom();
 		} else {
 			minionCard = (MinionCard) ((Minion) target).getSourceCard();
 		}
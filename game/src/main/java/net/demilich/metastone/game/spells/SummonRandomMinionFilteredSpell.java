@@ -3,7 +3,6 @@ package net.demilich.metastone.game.spells;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.cards.MinionCard;
@@ -16,26 +15,19 @@ import net.demilich.metastone.game.spells.desc.source.CardSource;
 public class SummonRandomMinionFilteredSpell extends Spell {
 
 	protected static MinionCard getRandomMatchingMinionCard(GameContext context, Player player, EntityFilter cardFilter, CardSource cardSource) {
-		CardCollection relevantMinions = null;
 		if (cardSource != null) {
 			CardCollection allCards = cardSource.getCards(context, player);
-			relevantMinions = new CardCollection();
+			CardCollection relevantMinions = new CardCollection();
 			for (Card card : allCards) {
 				if (card.getCardType().isCardType(CardType.MINION) && (cardFilter == null || cardFilter.matches(context, player, card))) {
 					relevantMinions.add(card);
 				}
 			}
-		} else {
-			CardCollection allMinions = CardCatalogue.query(context.getDeckFormat(), CardType.MINION);
-			relevantMinions = new CardCollection();
-			for (Card card : allMinions) {
-				if (cardFilter == null || cardFilter.matches(context, player, card)) {
-					relevantMinions.add(card);
-				}
-			}
+			return (MinionCard) relevantMinions.getRandom();
 		}
 		
-		return (MinionCard) relevantMinions.getRandom();
+		Card card = SpellUtils.getCardPool(context, player, CardType.MINION, cardFilter).getRandom();
+		return card != null ? (MinionCard) card.clone() : null;
 	}
 
 
@@ -15,6 +15,7 @@ import net.demilich.metastone.game.spells.desc.aura.AuraDesc;
 import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
 import net.demilich.metastone.game.spells.trigger.BoardChangedTrigger;
 import net.demilich.metastone.game.spells.trigger.GameEventTrigger;
+import net.demilich.metastone.game.spells.trigger.IGameEventListener;
 import net.demilich.metastone.game.spells.trigger.SpellTrigger;
 import net.demilich.metastone.game.targeting.EntityReference;
 
@@ -59,9 +60,6 @@ public class Aura extends SpellTrigger {
 	@Override
 	public Aura clone() {
 		Aura clone = (Aura) super.clone();
-		clone.targets = this.targets;
-		clone.applyAuraEffect = this.applyAuraEffect.clone();
-		clone.removeAuraEffect = this.removeAuraEffect.clone();
 		clone.affectedEntities = new HashSet<>(this.affectedEntities);
 		return clone;
 	}
@@ -112,6 +110,12 @@ public class Aura extends SpellTrigger {
 		affectedEntities.clear();
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		super.restoreState(snapshot);
+		affectedEntities = ((Aura) snapshot).affectedEntities;
+	}
+
 	public EntityFilter getEntityFilter() {
 		return entityFilter;
 	}
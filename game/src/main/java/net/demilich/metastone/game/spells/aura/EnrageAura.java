@@ -11,6 +11,7 @@ import net.demilich.metastone.game.events.GameEventType;
 import net.demilich.metastone.game.spells.desc.SpellDesc;
 import net.demilich.metastone.game.spells.desc.aura.AuraDesc;
 import net.demilich.metastone.game.spells.trigger.EnrageChangedTrigger;
+import net.demilich.metastone.game.spells.trigger.IGameEventListener;
 import net.demilich.metastone.game.targeting.EntityReference;
 
 public class EnrageAura extends Aura {
@@ -30,6 +31,12 @@ public class EnrageAura extends Aura {
 		return active && super.affects(context, player, target, resolvedTargets);
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		super.restoreState(snapshot);
+		active = ((EnrageAura) snapshot).active;
+	}
+
 	@Override
 	public void onGameEvent(GameEvent event) {
 		if (event.getEventType() == GameEventType.ENRAGE_CHANGED) {
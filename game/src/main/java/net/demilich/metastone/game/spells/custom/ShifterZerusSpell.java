@@ -5,7 +5,6 @@ import java.util.Map;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
-import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.spells.Spell;
 import net.demilich.metastone.game.spells.SpellUtils;
@@ -25,7 +24,10 @@ public class ShifterZerusSpell extends Spell {
 		Card card = (Card) target;
 
 		EntityFilter cardFilter = (EntityFilter) desc.get(SpellArg.CARD_FILTER);
-		Card newCard = SpellUtils.getRandomCard(CardCatalogue.query(context.getDeckFormat()), filterCard -> cardFilter.matches(context, player, filterCard));
+		Card newCard = SpellUtils.getCardPool(context, player, null, cardFilter).getRandom();
+		if (newCard != null) {
+			newCard = newCard.clone();
+		}
 		context.getLogic().replaceCard(player.getId(), card, newCard);
 		
 		Map<EventTriggerArg, Object> arguments = EventTriggerDesc.build(TurnStartTrigger.class);
@@ -4,16 +4,56 @@ import java.util.EnumMap;
 import java.util.Map;
 
 import net.demilich.metastone.game.cards.desc.Desc;
-import net.demilich.metastone.game.logic.CustomCloneable;
 import net.demilich.metastone.game.spells.Spell;
 import net.demilich.metastone.game.spells.TargetPlayer;
 import net.demilich.metastone.game.spells.desc.filter.EntityFilter;
 import net.demilich.metastone.game.targeting.EntityReference;
 
+/**
+ * Immutable description of a spell, shared by all cards and games which
+ * cast it. Adding or removing an argument creates an overlay which only
+ * stores the changed argument and refers to this description for all
+ * others, so rewriting a spell does not copy its arguments.
+ */
 public class SpellDesc extends Desc<SpellArg> {
 
+	// overlays are flattened into a map of their own beyond this depth
+	private static final int MAX_OVERLAY_DEPTH = 4;
+
+	// set for overlays only
+	private final SpellDesc base;
+	private final SpellArg overlayArg;
+	private final Object overlayValue;
+	private final boolean overlayPresent;
+	private final int depth;
+
+	// arguments every cast needs, resolved once when the description is
+	// created
+	private final Class<? extends Spell> spellClass;
+	private final Spell sharedSpell;
+	private final EntityReference target;
+	private final TargetPlayer targetPlayer;
+	private final EntityFilter entityFilter;
+	private final boolean randomTarget;
+
 	public SpellDesc(Map<SpellArg, Object> arguments) {
+		this(arguments, null, null, null, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	private SpellDesc(Map<SpellArg, Object> arguments, SpellDesc base, SpellArg overlayArg, Object overlayValue, boolean overlayPresent) {
 		super(arguments);
+		this.base = base;
+		this.overlayArg = overlayArg;
+		this.overlayValue = overlayValue;
+		this.overlayPresent = overlayPresent;
+		this.depth = base != null ? base.depth + 1 : 0;
+		spellClass = (Class<? extends Spell>) get(SpellArg.CLASS);
+		sharedSpell = spellClass != null ? SpellFactory.getSharedSpell(spellClass) : null;
+		target = (EntityReference) get(SpellArg.TARGET);
+		targetPlayer = (TargetPlayer) get(SpellArg.TARGET_PLAYER);
+		entityFilter = (EntityFilter) get(SpellArg.FILTER);
+		randomTarget = getBool(SpellArg.RANDOM_TARGET);
 	}
 
 	public static Map<SpellArg, Object> build(Class<? extends Spell> spellClass) {
@@ -23,59 +63,100 @@ public class SpellDesc extends Desc<SpellArg> {
 	}
 
 	public SpellDesc addArg(SpellArg spellArg, Object value) {
-		SpellDesc clone = clone();
-		clone.arguments.put(spellArg, value);
-		return clone;
+		return overlay(spellArg, value, true);
 	}
-	
-	public SpellDesc removeArg(SpellArg spellArg) {
-		SpellDesc clone = clone();
-		clone.arguments.remove(spellArg);
-		return clone;
+
+	@Override
+	public boolean contains(SpellArg spellArg) {
+		if (base == null) {
+			return arguments.containsKey(spellArg);
+		}
+		return spellArg == overlayArg ? overlayPresent : base.contains(spellArg);
 	}
 
 	@Override
-	public SpellDesc clone() {
-		SpellDesc clone = new SpellDesc(build(getSpellClass()));
-		for (SpellArg spellArg : arguments.keySet()) {
-			Object value = arguments.get(spellArg);
-			if (value instanceof CustomCloneable) {
-				CustomCloneable cloneable = (CustomCloneable) value;
-				clone.arguments.put(spellArg, cloneable.clone());
-			} else {
-				clone.arguments.put(spellArg, value);
-			}
+	public Object get(SpellArg spellArg) {
+		if (base == null) {
+			return arguments.get(spellArg);
 		}
-		return clone;
+		return spellArg == overlayArg ? overlayValue : base.get(spellArg);
 	}
 
 	public EntityFilter getEntityFilter() {
-		return (EntityFilter) get(SpellArg.FILTER);
+		return entityFilter;
 	}
 
 	public int getInt(SpellArg spellArg, int defaultValue) {
-		return arguments.containsKey(spellArg) ? (int) get(spellArg) : defaultValue;
+		return contains(spellArg) ? (int) get(spellArg) : defaultValue;
+	}
+
+	/**
+	 * @return the instance of the spell class which may be shared by all
+	 *         casts, or <code>null</code> if the spell needs an instance of
+	 *         its own
+	 */
+	public Spell getSharedSpell() {
+		return sharedSpell;
 	}
 
-	@SuppressWarnings("unchecked")
 	public Class<? extends Spell> getSpellClass() {
-		return (Class<? extends Spell>) arguments.get(SpellArg.CLASS);
+		return spellClass;
 	}
 
 	public EntityReference getTarget() {
-		return (EntityReference) arguments.get(SpellArg.TARGET);
+		return target;
 	}
 
 	public TargetPlayer getTargetPlayer() {
-		return (TargetPlayer) get(SpellArg.TARGET_PLAYER);
+		return targetPlayer;
 	}
 
 	public boolean hasPredefinedTarget() {
-		return arguments.get(SpellArg.TARGET) != null;
+		return target != null;
+	}
+
+	public boolean isRandomTarget() {
+		return randomTarget;
+	}
+
+	private SpellDesc overlay(SpellArg spellArg, Object value, boolean present) {
+		SpellDesc base = this;
+		// replace an overlay of the same argument instead of stacking on it
+		if (base.overlayArg == spellArg) {
+			base = base.base;
+		}
+		if (base.depth < MAX_OVERLAY_DEPTH) {
+			return new SpellDesc(null, base, spellArg, value, present);
+		}
+		Map<SpellArg, Object> arguments = base.toMap();
+		if (present) {
+			arguments.put(spellArg, value);
+		} else {
+			arguments.remove(spellArg);
+		}
+		return new SpellDesc(arguments);
+	}
+
+	public SpellDesc removeArg(SpellArg spellArg) {
+		return overlay(spellArg, null, false);
+	}
+
+	private Map<SpellArg, Object> toMap() {
+		if (base == null) {
+			return new EnumMap<>(arguments);
+		}
+		Map<SpellArg, Object> arguments = base.toMap();
+		if (overlayPresent) {
+			arguments.put(overlayArg, overlayValue);
+		} else {
+			arguments.remove(overlayArg);
+		}
+		return arguments;
 	}
 
 	@Override
 	public String toString() {
+		Map<SpellArg, Object> arguments = toMap();
 		String result = "[SpellDesc arguments= {\n";
 		for (SpellArg spellArg : arguments.keySet()) {
 			result += "\t" + spellArg + ": " + arguments.get(spellArg) + "\n";
@@ -1,11 +1,41 @@
 package net.demilich.metastone.game.spells.desc;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
 import net.demilich.metastone.game.spells.Spell;
 
+/**
+ * Provides the {@link Spell} which casts a {@link SpellDesc}. Spells get
+ * everything they need through the arguments of
+ * {@link Spell#cast(net.demilich.metastone.game.GameContext, net.demilich.metastone.game.Player, SpellDesc, net.demilich.metastone.game.entities.Entity, java.util.List)},
+ * so one instance of each spell class is shared by all casts and games.
+ * Classes with instance fields are not shared and still instantiated for
+ * every cast.
+ */
 public class SpellFactory {
 
-	public Spell getSpell(SpellDesc spellDesc) {
-		Class<? extends Spell> spellClass = spellDesc.getSpellClass();
+	private static final ClassValue<Spell> SHARED_SPELLS = new ClassValue<Spell>() {
+
+		@Override
+		protected Spell computeValue(Class<?> type) {
+			return isStateless(type) ? newInstance(type.asSubclass(Spell.class)) : null;
+		}
+
+	};
+
+	private static boolean isStateless(Class<?> type) {
+		for (Class<?> current = type; current != Spell.class; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static Spell newInstance(Class<? extends Spell> spellClass) {
 		try {
 			return spellClass.newInstance();
 		} catch (InstantiationException | IllegalAccessException e) {
@@ -14,4 +44,17 @@ public class SpellFactory {
 		return null;
 	}
 
+	/**
+	 * @return the instance of the spell class shared by all casts, or
+	 *         <code>null</code> if the class has instance fields
+	 */
+	public static Spell getSharedSpell(Class<? extends Spell> spellClass) {
+		return SHARED_SPELLS.get(spellClass);
+	}
+
+	public Spell getSpell(SpellDesc spellDesc) {
+		Spell spell = spellDesc.getSharedSpell();
+		return spell != null ? spell : newInstance(spellDesc.getSpellClass());
+	}
+
 }
@@ -7,15 +7,20 @@ import net.demilich.metastone.game.entities.Entity;
 public abstract class Condition {
 
 	private final ConditionDesc desc;
+	private final boolean invert;
 
 	public Condition(ConditionDesc desc) {
 		this.desc = desc;
+		this.invert = desc.getBool(ConditionArg.INVERT);
+	}
+
+	public ConditionDesc getDesc() {
+		return desc;
 	}
 
 	protected abstract boolean isFulfilled(GameContext context, Player player, ConditionDesc desc, Entity source, Entity target);
 
 	public boolean isFulfilled(GameContext context, Player player, Entity source, Entity target) {
-		boolean invert = desc.getBool(ConditionArg.INVERT);
 		return isFulfilled(context, player, desc, source, target) != invert;
 	}
 
@@ -4,6 +4,7 @@ import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.cards.Card;
+import net.demilich.metastone.game.cards.CardPool;
 import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.cards.Rarity;
 import net.demilich.metastone.game.entities.Actor;
@@ -11,6 +12,7 @@ import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.entities.minions.Race;
 import net.demilich.metastone.game.spells.SpellUtils;
+import net.demilich.metastone.game.spells.TargetPlayer;
 
 public class CardFilter extends EntityFilter {
 
@@ -19,11 +21,7 @@ public class CardFilter extends EntityFilter {
 	}
 	
 	private boolean heroClassTest(GameContext context, Player player, Card card, HeroClass heroClass) {
-		if (heroClass == HeroClass.OPPONENT) {
-			heroClass = context.getOpponent(player).getHero().getHeroClass();
-		} else if (heroClass == HeroClass.SELF) {
-			heroClass = player.getHero().getHeroClass();
-		}
+		heroClass = resolveHeroClass(context, player, heroClass);
 		
 		if (heroClass != null && card.hasHeroClass(heroClass)) {
 			return false;
@@ -32,6 +30,15 @@ public class CardFilter extends EntityFilter {
 		return true;
 	}
 
+	private HeroClass resolveHeroClass(GameContext context, Player player, HeroClass heroClass) {
+		if (heroClass == HeroClass.OPPONENT) {
+			return context.getOpponent(player).getHero().getHeroClass();
+		} else if (heroClass == HeroClass.SELF) {
+			return player.getHero().getHeroClass();
+		}
+		return heroClass;
+	}
+
 	@Override
 	protected boolean test(GameContext context, Player player, Entity entity) {
 		Card card = null;
@@ -96,4 +103,51 @@ public class CardFilter extends EntityFilter {
 		return true;
 	}
 
+	/**
+	 * Translates this filter into a query for a {@link CardPool}, restricted to
+	 * the given card type. Returns <code>null</code> if the filter cannot be
+	 * expressed as a query; the pool then has to be filtered card by card.
+	 */
+	public CardPool.Query toPoolQuery(GameContext context, Player player, CardType cardType) {
+		if (desc.getBool(FilterArg.INVERT)) {
+			return null;
+		}
+		TargetPlayer targetPlayer = (TargetPlayer) desc.get(FilterArg.TARGET_PLAYER);
+		if (targetPlayer != null && targetPlayer != TargetPlayer.SELF) {
+			return null;
+		}
+		HeroClass[] heroClasses = (HeroClass[]) desc.get(FilterArg.HERO_CLASSES);
+		if (heroClasses != null && heroClasses.length > 0) {
+			return null;
+		}
+
+		CardType filterCardType = (CardType) desc.get(FilterArg.CARD_TYPE);
+		if (cardType != null && filterCardType != null && cardType != filterCardType) {
+			return null;
+		}
+		if (filterCardType != null) {
+			cardType = filterCardType;
+		}
+		HeroClass heroClass = (HeroClass) desc.get(FilterArg.HERO_CLASS);
+		if (heroClass != null) {
+			heroClass = resolveHeroClass(context, player, heroClass);
+			if (heroClass == null) {
+				return null;
+			}
+		}
+		Integer manaCost = null;
+		if (desc.contains(FilterArg.MANA_COST)) {
+			manaCost = desc.getValue(FilterArg.MANA_COST, context, player, null, null, 0);
+		}
+		Attribute attribute = null;
+		if (desc.contains(FilterArg.ATTRIBUTE) && desc.contains(FilterArg.OPERATION)) {
+			Operation operation = (Operation) desc.get(FilterArg.OPERATION);
+			if (operation != Operation.HAS && operation != null) {
+				return null;
+			}
+			attribute = (Attribute) desc.get(FilterArg.ATTRIBUTE);
+		}
+		return new CardPool.Query(cardType, (Rarity) desc.get(FilterArg.RARITY), heroClass, (Race) desc.get(FilterArg.RACE), manaCost, attribute);
+	}
+
 }
@@ -8,25 +8,30 @@ import net.demilich.metastone.game.spells.TargetPlayer;
 public abstract class EntityFilter {
 
 	protected final FilterDesc desc;
+	// common arguments, resolved once instead of on every match
+	private final boolean invert;
+	private final TargetPlayer targetPlayer;
 
 	public EntityFilter(FilterDesc desc) {
 		this.desc = desc;
+		this.invert = desc.getBool(FilterArg.INVERT);
+		TargetPlayer targetPlayer = (TargetPlayer) desc.get(FilterArg.TARGET_PLAYER);
+		this.targetPlayer = targetPlayer != null ? targetPlayer : TargetPlayer.SELF;
 	}
 	
 	public Object getArg(FilterArg arg) {
 		return desc.get(arg);
 	}
 	
+	public FilterDesc getDesc() {
+		return desc;
+	}
+
 	public boolean hasArg(FilterArg arg) {
 		return desc.contains(arg);
 	}
 
 	public boolean matches(GameContext context, Player player, Entity entity) {
-		boolean invert = desc.getBool(FilterArg.INVERT);
-		TargetPlayer targetPlayer = (TargetPlayer) desc.get(FilterArg.TARGET_PLAYER);
-		if (targetPlayer == null) {
-			targetPlayer = TargetPlayer.SELF;
-		}
 		Player providingPlayer = null;
 		switch (targetPlayer) {
 		case ACTIVE:
@@ -17,6 +17,10 @@ public abstract class CardSource {
 		return desc.get(arg);
 	}
 	
+	public SourceDesc getDesc() {
+		return desc;
+	}
+
 	public boolean hasArg(SourceArg arg) {
 		return desc.contains(arg);
 	}
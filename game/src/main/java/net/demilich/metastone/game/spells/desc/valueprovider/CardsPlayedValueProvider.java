@@ -19,7 +19,7 @@ public class CardsPlayedValueProvider extends ValueProvider {
 		int count = 0;
 		EntityFilter filter = (EntityFilter) desc.get(ValueProviderArg.FILTER);
 		for (String cardId : cardIds.keySet()) {
-			Entity entity = context.getCardById(cardId);
+			Entity entity = context.getCardPrototypeById(cardId);
 			if (filter == null || filter.matches(context, player, entity)) {
 				for (Integer turn : cardIds.get(cardId).keySet()) {
 					count += cardIds.get(cardId).get(turn);
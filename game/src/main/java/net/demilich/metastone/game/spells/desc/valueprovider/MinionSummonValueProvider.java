@@ -19,7 +19,7 @@ public class MinionSummonValueProvider extends ValueProvider {
 		int count = 0;
 		EntityFilter filter = (EntityFilter) desc.get(ValueProviderArg.FILTER);
 		for (String minionId : minionIds.keySet()) {
-			Entity entity = context.getCardById(minionId);
+			Entity entity = context.getCardPrototypeById(minionId);
 			if (filter == null || filter.matches(context, player, entity)) {
 				for (Integer turn : minionIds.get(minionId).keySet()) {
 					count += minionIds.get(minionId).get(turn);
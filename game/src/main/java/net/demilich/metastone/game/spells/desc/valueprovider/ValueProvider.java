@@ -8,24 +8,30 @@ import net.demilich.metastone.game.spells.TargetPlayer;
 public abstract class ValueProvider {
 
 	protected final ValueProviderDesc desc;
+	// common arguments, resolved once instead of on every evaluation
+	private final TargetPlayer targetPlayer;
+	private final int multiplier;
+	private final int offset;
 
 	public ValueProvider(ValueProviderDesc desc) {
 		this.desc = desc;
+		TargetPlayer targetPlayer = (TargetPlayer) desc.get(ValueProviderArg.TARGET_PLAYER);
+		this.targetPlayer = targetPlayer != null ? targetPlayer : TargetPlayer.SELF;
+		this.multiplier = desc.contains(ValueProviderArg.MULTIPLIER) ? desc.getInt(ValueProviderArg.MULTIPLIER) : 1;
+		this.offset = desc.contains(ValueProviderArg.OFFSET) ? desc.getInt(ValueProviderArg.OFFSET) : 0;
+	}
+
+	public ValueProviderDesc getDesc() {
+		return desc;
 	}
 
 	public int getValue(GameContext context, Player player, Entity target, Entity host) {
-		TargetPlayer targetPlayer = (TargetPlayer) desc.get(ValueProviderArg.TARGET_PLAYER);
-		if (targetPlayer == null) {
-			targetPlayer = TargetPlayer.SELF;
-		}
 		Player providingPlayer = null;
 		switch (targetPlayer) {
 		case ACTIVE:
 			providingPlayer = context.getActivePlayer();
 			break;
 		case BOTH:
-			int multiplier = desc.contains(ValueProviderArg.MULTIPLIER) ? desc.getInt(ValueProviderArg.MULTIPLIER) : 1;
-			int offset = desc.contains(ValueProviderArg.OFFSET) ? desc.getInt(ValueProviderArg.OFFSET) : 0;
 			int value = 0;
 			for (Player selectedPlayer : context.getPlayers()) {
 				value += provideValue(context, selectedPlayer, target, host);
@@ -46,8 +52,6 @@ public abstract class ValueProvider {
 			providingPlayer = player;
 			break;
 		}
-		int multiplier = desc.contains(ValueProviderArg.MULTIPLIER) ? desc.getInt(ValueProviderArg.MULTIPLIER) : 1;
-		int offset = desc.contains(ValueProviderArg.OFFSET) ? desc.getInt(ValueProviderArg.OFFSET) : 0;
 		int value = provideValue(context, providingPlayer, target, host) * multiplier + offset;
 		return value;
 	}
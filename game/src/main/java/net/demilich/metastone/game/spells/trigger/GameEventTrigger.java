@@ -15,10 +15,21 @@ public abstract class GameEventTrigger extends CustomCloneable {
 
 	private int owner = -1;
 	protected final EventTriggerDesc desc;
+	// arguments checked for every event, resolved once
+	private final TargetPlayer targetPlayer;
+	private final TargetPlayer sourcePlayer;
+	private final TargetType hostTargetType;
+	private final Condition queueCondition;
+	private final Condition fireCondition;
 	private int triggerCount;
 
 	public GameEventTrigger(EventTriggerDesc desc) {
 		this.desc = desc;
+		this.targetPlayer = desc.getTargetPlayer();
+		this.sourcePlayer = desc.getSourcePlayer();
+		this.hostTargetType = (TargetType) desc.get(EventTriggerArg.HOST_TARGET_TYPE);
+		this.queueCondition = (Condition) desc.get(EventTriggerArg.QUEUE_CONDITION);
+		this.fireCondition = (Condition) desc.get(EventTriggerArg.FIRE_CONDITION);
 		this.triggerCount = desc.getTriggerCount();
 	}
 
@@ -53,16 +64,13 @@ public abstract class GameEventTrigger extends CustomCloneable {
 	protected abstract boolean fire(GameEvent event, Entity host);
 
 	public final boolean fires(GameEvent event, Entity host) {
-		TargetPlayer targetPlayer = desc.getTargetPlayer();
 		if (targetPlayer != null && !determineTargetPlayer(event, targetPlayer, host, event.getTargetPlayerId())) {
 			return false;
 		}
-		TargetPlayer sourcePlayer = desc.getSourcePlayer();
 		if (sourcePlayer != null && !determineTargetPlayer(event, sourcePlayer, host, event.getSourcePlayerId())) {
 			return false;
 		}
 
-		TargetType hostTargetType = (TargetType) desc.get(EventTriggerArg.HOST_TARGET_TYPE);
 		if (hostTargetType == TargetType.IGNORE_AS_TARGET && event.getEventTarget() == host) {
 			return false;
 		} else if (hostTargetType == TargetType.IGNORE_AS_SOURCE && event.getEventSource() == host) {
@@ -72,9 +80,8 @@ public abstract class GameEventTrigger extends CustomCloneable {
 		} else if (hostTargetType == TargetType.IGNORE_OTHER_SOURCES && event.getEventSource() != host) {
 			return false;
 		}
-		Condition condition = (Condition) desc.get(EventTriggerArg.QUEUE_CONDITION);
 		Player owner = event.getGameContext().getPlayer(getOwner());
-		if (condition != null && !condition.isFulfilled(event.getGameContext(), owner, event.getEventSource(), event.getEventTarget())) {
+		if (queueCondition != null && !queueCondition.isFulfilled(event.getGameContext(), owner, event.getEventSource(), event.getEventTarget())) {
 			return false;
 		}
 		return fire(event, host);
@@ -114,9 +121,8 @@ public abstract class GameEventTrigger extends CustomCloneable {
 	}
 	
 	public boolean canFireCondition(GameEvent event) {
-		Condition condition = (Condition) desc.get(EventTriggerArg.FIRE_CONDITION);
 		Player owner = event.getGameContext().getPlayer(getOwner());
-		if (condition != null && !condition.isFulfilled(event.getGameContext(), owner, event.getEventSource(), event.getEventTarget())) {
+		if (fireCondition != null && !fireCondition.isFulfilled(event.getGameContext(), owner, event.getEventSource(), event.getEventTarget())) {
 			return false;
 		}
 		return true;
@@ -26,6 +26,8 @@ public interface IGameEventListener {
 
 	public abstract void onRemove(GameContext context);
 
+	public abstract void restoreState(IGameEventListener snapshot);
+
 	public abstract void setHost(Entity host);
 
 	public abstract void setOwner(int playerIndex);
@@ -50,7 +50,6 @@ public class SpellTrigger extends CustomCloneable implements IGameEventListener
 		if (secondaryTrigger != null) {
 			clone.secondaryTrigger = (GameEventTrigger) secondaryTrigger.clone();
 		}
-		clone.spell = spell.clone();
 		return clone;
 	}
 
@@ -130,6 +129,17 @@ public class SpellTrigger extends CustomCloneable implements IGameEventListener
 	public void onRemove(GameContext context) {
 	}
 
+	@Override
+	public void restoreState(IGameEventListener snapshot) {
+		SpellTrigger state = (SpellTrigger) snapshot;
+		primaryTrigger = state.primaryTrigger;
+		secondaryTrigger = state.secondaryTrigger;
+		hostReference = state.hostReference;
+		expired = state.expired;
+		persistentOwner = state.persistentOwner;
+		turnDelay = state.turnDelay;
+	}
+
 	@Override
 	public void setHost(Entity host) {
 		this.hostReference = host.getReference();
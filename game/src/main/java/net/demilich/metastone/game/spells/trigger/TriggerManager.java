@@ -1,34 +1,156 @@
 package net.demilich.metastone.game.spells.trigger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.demilich.metastone.game.events.GameEvent;
 import net.demilich.metastone.game.events.GameEventType;
+import net.demilich.metastone.game.logic.JournaledList;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.logic.ZobristKey;
 import net.demilich.metastone.game.spells.aura.Aura;
+import net.demilich.metastone.game.spells.trigger.types.Quest;
+import net.demilich.metastone.game.spells.trigger.types.Secret;
 import net.demilich.metastone.game.targeting.EntityReference;
 import net.demilich.metastone.utils.IDisposable;
 
+/**
+ * Holds the triggers of a game and dispatches events to them. Triggers are
+ * kept in order of registration; for each event type a bucket of the
+ * triggers interested in it is derived from that list whenever it changed,
+ * so dispatching an event only visits the triggers listening to it.
+ *
+ * Triggers only expire while triggers react to an event, so expired ones are
+ * removed after events which caused a reaction, and at the end of a turn.
+ *
+ * The event types a trigger is interested in are determined once when it is
+ * added and must not change while it is registered. Triggers are also
+ * indexed by their host, and secrets and quests are kept apart, so looking
+ * them up only visits the triggers of the entity in question. The host of a
+ * registered trigger therefore has to be changed through
+ * {@link #moveTrigger(IGameEventListener, Entity)}.
+ */
 public class TriggerManager implements Cloneable, IDisposable {
 
 	public static Logger logger = LoggerFactory.getLogger(TriggerManager.class);
 
-	private final List<IGameEventListener> triggers = new ArrayList<IGameEventListener>();
+	private static final GameEventType[] EVENT_TYPES = GameEventType.values();
+	private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+
+	private static class Registration {
+
+		private final IGameEventListener trigger;
+		// bit set of the ordinals of the event types the trigger listens to
+		private final long eventTypes;
+		// order of registration, used to keep the host index sorted
+		private final long sequence;
+		// the host the trigger is indexed under
+		private EntityReference host;
+		private boolean registered;
+
+		private Registration(IGameEventListener trigger, long eventTypes, long sequence) {
+			this.trigger = trigger;
+			this.eventTypes = eventTypes;
+			this.sequence = sequence;
+			this.host = trigger.getHostReference();
+		}
+
+	}
+
+	private final List<Registration> triggers = new JournaledList<Registration>() {
+
+		@Override
+		protected void elementAdded(int index, Registration registration) {
+			registration.registered = true;
+			staleBuckets |= registration.eventTypes;
+			updateSubscriptions(registration.eventTypes, 1);
+			index(registration);
+			if (zobristKey != null) {
+				zobristKey.add(hashTrigger(registration.trigger));
+			}
+		}
+
+		@Override
+		protected void elementRemoved(int index, Registration registration) {
+			registration.registered = false;
+			staleBuckets |= registration.eventTypes;
+			updateSubscriptions(registration.eventTypes, -1);
+			unindex(registration);
+			if (zobristKey != null) {
+				zobristKey.remove(hashTrigger(registration.trigger));
+			}
+		}
+
+		@Override
+		protected void elementReplaced(int index, Registration oldRegistration, Registration registration) {
+			elementRemoved(index, oldRegistration);
+			elementAdded(index, registration);
+		}
+
+	};
+
+	private final Registration[][] buckets = new Registration[EVENT_TYPES.length][];
+	private long staleBuckets = -1L;
+	// number of registered triggers per event type, and the bit set of event
+	// types with at least one of them
+	private final int[] listenerCounts = new int[EVENT_TYPES.length];
+	private long subscriptions;
+
+	private final Map<EntityReference, List<Registration>> triggersByHost = new HashMap<>();
+	private final List<Registration> secrets = new ArrayList<>();
+	private final List<Registration> quests = new ArrayList<>();
+	private long nextSequence;
+
+	// triggers which may fire for the events currently being dispatched;
+	// nested dispatches append above the range of the outer ones
+	private Registration[] candidates = new Registration[16];
+	private int candidateCount;
+	// set when a trigger reacted to an event; its reaction may have expired
+	// triggers of any event type
+	private boolean expiryPending;
+
+	private ZobristKey zobristKey;
+	// counts the reactions of triggers to events, which may change their state
+	private long revision;
+
+	/**
+	 * Triggers only contribute their type to the Zobrist key. Host and owner
+	 * of a trigger may change while it is registered, so they cannot be part
+	 * of its contribution.
+	 */
+	private static long hashTrigger(IGameEventListener trigger) {
+		return ZobristKey.hashFeature(ZobristKey.ZONE_TRIGGERS, trigger.getClass().getName());
+	}
 
 	public TriggerManager() {
 	}
 
-	private TriggerManager(TriggerManager otherTriggerManager) {
-		for (IGameEventListener gameEventListener : otherTriggerManager.triggers) {
-			triggers.add(gameEventListener.clone());
+	private TriggerManager(TriggerManager otherTriggerManager, Map<IGameEventListener, IGameEventListener> clonedTriggers) {
+		for (Registration registration : otherTriggerManager.triggers) {
+			IGameEventListener clone = registration.trigger.clone();
+			triggers.add(new Registration(clone, registration.eventTypes, nextSequence++));
+			if (clonedTriggers != null) {
+				clonedTriggers.put(registration.trigger, clone);
+			}
 		}
 	}
 
 	public void addTrigger(IGameEventListener trigger) {
-		triggers.add(trigger);
+		long eventTypes = 0;
+		for (GameEventType eventType : EVENT_TYPES) {
+			if (trigger.interestedIn(eventType)) {
+				eventTypes |= 1L << eventType.ordinal();
+			}
+		}
+		triggers.add(new Registration(trigger, eventTypes, nextSequence++));
 		if (triggers.size() > 100) {
 			logger.warn("Warning, many triggers: " + triggers.size() + " adding one of type: " + trigger);
 		}
@@ -36,7 +158,16 @@ public class TriggerManager implements Cloneable, IDisposable {
 
 	@Override
 	public TriggerManager clone() {
-		return new TriggerManager(this);
+		return new TriggerManager(this, null);
+	}
+
+	/**
+	 * Clones this trigger manager and records which clone was created for
+	 * each trigger, so that other holders of the same listeners can be
+	 * pointed to the very same cloned instances.
+	 */
+	public TriggerManager clone(Map<IGameEventListener, IGameEventListener> clonedTriggers) {
+		return new TriggerManager(this, clonedTriggers);
 	}
 
 	@Override
@@ -44,90 +175,301 @@ public class TriggerManager implements Cloneable, IDisposable {
 		triggers.clear();
 	}
 
+	private Registration findRegistration(IGameEventListener trigger) {
+		for (Registration registration : getHostedBy(trigger.getHostReference())) {
+			if (registration.trigger == trigger) {
+				return registration;
+			}
+		}
+		for (Registration registration : triggers) {
+			if (registration.trigger == trigger) {
+				return registration;
+			}
+		}
+		return null;
+	}
+
 	public void fireGameEvent(GameEvent event) {
-		List<IGameEventListener> eventTriggers = new ArrayList<IGameEventListener>();
-		List<IGameEventListener> removeTriggers = new ArrayList<IGameEventListener>();
-		for (IGameEventListener trigger : triggers) {
-			// In order to stop premature expiration, check
-			// for a oneTurnOnly tag and that it isn't delayed.
-			if (event.getEventType() == GameEventType.TURN_END) {
-				if(trigger.oneTurnOnly() && !trigger.isDelayed() &&
-						!trigger.interestedIn(GameEventType.TURN_START) &&
-						!trigger.interestedIn(GameEventType.TURN_END)) {
+		GameEventType eventType = event.getEventType();
+		if (!hasListeners(eventType)) {
+			return;
+		}
+		if (eventType == GameEventType.TURN_END) {
+			for (Registration registration : triggers) {
+				IGameEventListener trigger = registration.trigger;
+				// In order to stop premature expiration, check
+				// for a oneTurnOnly tag and that it isn't delayed.
+				UndoJournal.recordTrigger(trigger);
+				revision++;
+				if (trigger.oneTurnOnly() && !trigger.isDelayed() && !trigger.interestedIn(GameEventType.TURN_START)
+						&& !trigger.interestedIn(GameEventType.TURN_END)) {
 					trigger.expire();
 				}
 				trigger.delayTimeDown();
 			}
-			if (trigger.isExpired()) {
-				removeTriggers.add(trigger);
-			}
+		}
 
-			if (!trigger.interestedIn(event.getEventType())) {
-				continue;
-			}
-			if (triggers.contains(trigger) && trigger.canFire(event)) {
-				eventTriggers.add(trigger);
+		Registration[] bucket = getBucket(eventType);
+		int start = candidateCount;
+		for (Registration registration : bucket) {
+			if (registration.trigger.canFire(event)) {
+				if (candidateCount == candidates.length) {
+					candidates = Arrays.copyOf(candidates, candidateCount * 2);
+				}
+				candidates[candidateCount++] = registration;
 			}
 		}
+		int end = candidateCount;
 
-		for (IGameEventListener trigger : eventTriggers) {
-			if (trigger.canFireCondition(event) && triggers.contains(trigger)) {
-				trigger.countDown();
-				if (!trigger.hasCounter()) {
-					trigger.onGameEvent(event);
+		try {
+			for (int i = start; i < end; i++) {
+				Registration registration = candidates[i];
+				IGameEventListener trigger = registration.trigger;
+				// a previous trigger may have removed this one (i.e. double
+				// corruption)
+				if (trigger.canFireCondition(event) && registration.registered) {
+					UndoJournal.recordTrigger(trigger);
+					revision++;
+					expiryPending = true;
+					trigger.countDown();
+					if (!trigger.hasCounter()) {
+						trigger.onGameEvent(event);
+					}
 				}
 			}
+		} finally {
+			Arrays.fill(candidates, start, end, null);
+			candidateCount = start;
+		}
 
-			// we need to double check here if the trigger still exists;
-			// after all, a previous trigger may have removed it (i.e. double
-			// corruption)
-			if (trigger.isExpired()) {
-				removeTriggers.add(trigger);
-			}
+		if (eventType == GameEventType.TURN_END || expiryPending) {
+			expiryPending = false;
+			removeExpiredTriggers(triggers.toArray(NO_REGISTRATIONS));
 		}
+	}
 
-		for (IGameEventListener trigger : removeTriggers) {
-			triggers.remove(trigger);
+	/**
+	 * Returns the triggers interested in the given event type, in order of
+	 * registration. The returned array is never modified; changes to the
+	 * registered triggers create a new one.
+	 */
+	private Registration[] getBucket(GameEventType eventType) {
+		int ordinal = eventType.ordinal();
+		long bit = 1L << ordinal;
+		if ((staleBuckets & bit) != 0) {
+			int count = 0;
+			for (Registration registration : triggers) {
+				if ((registration.eventTypes & bit) != 0) {
+					count++;
+				}
+			}
+			Registration[] bucket = count > 0 ? new Registration[count] : NO_REGISTRATIONS;
+			int index = 0;
+			for (Registration registration : triggers) {
+				if ((registration.eventTypes & bit) != 0) {
+					bucket[index++] = registration;
+				}
+			}
+			buckets[ordinal] = bucket;
+			staleBuckets &= ~bit;
 		}
+		return buckets[ordinal];
 	}
 
-	private List<IGameEventListener> getListSnapshot(List<IGameEventListener> triggerList) {
-		return new ArrayList<IGameEventListener>(triggerList);
+	private List<Registration> getHostedBy(EntityReference entityReference) {
+		List<Registration> hosted = triggersByHost.get(entityReference);
+		return hosted != null ? hosted : Collections.<Registration>emptyList();
 	}
 
-	public List<IGameEventListener> getTriggersAssociatedWith(EntityReference entityReference) {
+	/**
+	 * Returns the quests hosted by the given entity, usually a hero, in order
+	 * of registration.
+	 */
+	public List<IGameEventListener> getQuestsAssociatedWith(EntityReference entityReference) {
+		return getTriggers(quests, entityReference);
+	}
+
+	/**
+	 * Returns the secrets hosted by the given entity, usually a hero, in order
+	 * of registration.
+	 */
+	public List<IGameEventListener> getSecretsAssociatedWith(EntityReference entityReference) {
+		return getTriggers(secrets, entityReference);
+	}
+
+	private static List<IGameEventListener> getTriggers(List<Registration> registrations, EntityReference entityReference) {
 		List<IGameEventListener> relevantTriggers = new ArrayList<>();
-		for (IGameEventListener trigger : triggers) {
-			if (trigger.getHostReference().equals(entityReference)) {
-				relevantTriggers.add(trigger);
+		for (Registration registration : registrations) {
+			if (entityReference.equals(registration.host)) {
+				relevantTriggers.add(registration.trigger);
 			}
 		}
 		return relevantTriggers;
 	}
 
+	public List<IGameEventListener> getTriggersAssociatedWith(EntityReference entityReference) {
+		List<Registration> hosted = getHostedBy(entityReference);
+		List<IGameEventListener> relevantTriggers = new ArrayList<>(hosted.size());
+		for (Registration registration : hosted) {
+			relevantTriggers.add(registration.trigger);
+		}
+		return relevantTriggers;
+	}
+
+	/**
+	 * Changes the revision without touching any trigger. Rolling back an
+	 * action restores the state of triggers in place, so this has to be
+	 * called afterwards.
+	 */
+	public void invalidateRevision() {
+		revision++;
+	}
+
+	/**
+	 * Returns a number which changes whenever a trigger reacts to an event.
+	 * Triggers keep state of their own, like the toggle of a cost modifier,
+	 * which is not part of the Zobrist key.
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Checks whether firing an event of the given type would have any effect.
+	 * Events of other types may be skipped altogether. Turn ends are of
+	 * interest as long as there are any triggers, as they count down delays
+	 * and expire one-turn triggers.
+	 */
+	public boolean hasListeners(GameEventType eventType) {
+		if (eventType == GameEventType.TURN_END) {
+			return !triggers.isEmpty();
+		}
+		return (subscriptions & (1L << eventType.ordinal())) != 0;
+	}
+
+	private void index(Registration registration) {
+		if (registration.host != null) {
+			insert(triggersByHost.computeIfAbsent(registration.host, key -> new ArrayList<>(4)), registration);
+		}
+		if (registration.trigger instanceof Secret) {
+			insert(secrets, registration);
+		}
+		if (registration.trigger instanceof Quest) {
+			insert(quests, registration);
+		}
+	}
+
+	/**
+	 * Inserts a registration in order of registration. Triggers are almost
+	 * always appended; only rollbacks put them back in between.
+	 */
+	private static void insert(List<Registration> registrations, Registration registration) {
+		int index = registrations.size();
+		while (index > 0 && registrations.get(index - 1).sequence > registration.sequence) {
+			index--;
+		}
+		registrations.add(index, registration);
+	}
+
+	/**
+	 * Changes the host of a registered trigger and keeps the host index up to
+	 * date, including on rollback.
+	 */
+	public void moveTrigger(IGameEventListener trigger, Entity host) {
+		Registration registration = findRegistration(trigger);
+		if (registration == null) {
+			trigger.setHost(host);
+			return;
+		}
+		EntityReference oldHost = registration.host;
+		trigger.setHost(host);
+		reindex(registration, trigger.getHostReference());
+		UndoJournal.record(() -> reindex(registration, oldHost));
+	}
+
 	public void printCurrentTriggers() {
-		for (IGameEventListener trigger : triggers) {
+		for (Registration registration : triggers) {
 			System.out.println();
-			System.out.println(trigger.toString());
+			System.out.println(registration.trigger.toString());
 			System.out.println();
 		}
 	}
 
+	private void removeExpiredTriggers(Registration[] registrations) {
+		for (Registration registration : registrations) {
+			if (registration.registered && registration.trigger.isExpired()) {
+				triggers.remove(registration);
+			}
+		}
+	}
+
+	private void reindex(Registration registration, EntityReference host) {
+		if (registration.registered) {
+			unindex(registration);
+			registration.host = host;
+			index(registration);
+		} else {
+			registration.host = host;
+		}
+	}
+
 	public void removeTrigger(IGameEventListener trigger) {
-		if (!triggers.remove(trigger)) {
-			System.out.println("Failed to remove trigger " + trigger);
+		Registration registration = findRegistration(trigger);
+		if (registration != null) {
+			triggers.remove(registration);
+			return;
 		}
+		System.out.println("Failed to remove trigger " + trigger);
 	}
 
 	public void removeTriggersAssociatedWith(EntityReference entityReference, boolean removeAuras) {
-		for (IGameEventListener trigger : getListSnapshot(triggers)) {
-			if (trigger.getHostReference().equals(entityReference)) {
-				if (!removeAuras && trigger instanceof Aura) {
-					continue;
-				}
-				triggers.remove(trigger);
+		List<Registration> hosted = getHostedBy(entityReference);
+		for (Registration registration : hosted.toArray(NO_REGISTRATIONS)) {
+			if (!removeAuras && registration.trigger instanceof Aura) {
+				continue;
+			}
+			triggers.remove(registration);
+		}
+	}
+
+	private void unindex(Registration registration) {
+		if (registration.host != null) {
+			List<Registration> hosted = triggersByHost.get(registration.host);
+			hosted.remove(registration);
+			if (hosted.isEmpty()) {
+				triggersByHost.remove(registration.host);
+			}
+		}
+		if (registration.trigger instanceof Secret) {
+			secrets.remove(registration);
+		}
+		if (registration.trigger instanceof Quest) {
+			quests.remove(registration);
+		}
+	}
+
+	private void updateSubscriptions(long eventTypes, int delta) {
+		for (long bits = eventTypes; bits != 0; bits &= bits - 1) {
+			int ordinal = Long.numberOfTrailingZeros(bits);
+			listenerCounts[ordinal] += delta;
+			if (listenerCounts[ordinal] == 0) {
+				subscriptions &= ~(1L << ordinal);
+			} else {
+				subscriptions |= 1L << ordinal;
+			}
+		}
+	}
+
+	public void setZobristKey(ZobristKey key) {
+		if (zobristKey != null) {
+			for (Registration registration : triggers) {
+				zobristKey.remove(hashTrigger(registration.trigger));
 			}
 		}
+		zobristKey = key;
+		for (Registration registration : triggers) {
+			zobristKey.add(hashTrigger(registration.trigger));
+		}
 	}
 
 }
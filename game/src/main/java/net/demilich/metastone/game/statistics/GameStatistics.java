@@ -9,6 +9,7 @@ import net.demilich.metastone.game.cards.CardType;
 import net.demilich.metastone.game.entities.minions.Minion;
 import net.demilich.metastone.game.entities.minions.Permanent;
 import net.demilich.metastone.game.entities.weapons.Weapon;
+import net.demilich.metastone.game.logic.UndoJournal;
 
 public class GameStatistics implements Cloneable {
 
@@ -18,11 +19,8 @@ public class GameStatistics implements Cloneable {
 	private final Map<String, Map<Integer, Integer>> permanentsSummoned = new HashMap<String, Map<Integer, Integer>>();
 
 	private void add(Statistic key, long value) {
-		if (!stats.containsKey(key)) {
-			stats.put(key, 0L);
-		}
 		long newValue = getLong(key) + value;
-		stats.put(key, newValue);
+		set(key, newValue);
 	}
 
 	public void armorGained(int armor) {
@@ -135,36 +133,27 @@ public class GameStatistics implements Cloneable {
 		if (card.getCardType().isCardType(CardType.HERO_POWER)) {
 			return;
 		}
-		String cardId = card.getCardId();
-		if (!getCardsPlayed().containsKey(cardId)) {
-			getCardsPlayed().put(cardId, new HashMap<Integer, Integer>());
-		}
-		if (!getCardsPlayed().get(cardId).containsKey(turn)) {
-			getCardsPlayed().get(cardId).put(turn, 0);
+		increaseCount(getCardsPlayed(), card.getCardId(), turn);
+	}
+
+	private void increaseCount(Map<String, Map<Integer, Integer>> counts, String cardId, int turn) {
+		Map<Integer, Integer> countsPerTurn = counts.get(cardId);
+		if (countsPerTurn == null) {
+			countsPerTurn = new HashMap<Integer, Integer>();
+			UndoJournal.recordMapPut(counts, cardId);
+			counts.put(cardId, countsPerTurn);
 		}
-		getCardsPlayed().get(cardId).put(turn, getCardsPlayed().get(cardId).get(turn) + 1);
+		Integer count = countsPerTurn.get(turn);
+		UndoJournal.recordMapPut(countsPerTurn, turn);
+		countsPerTurn.put(turn, count != null ? count + 1 : 1);
 	}
 	
 	private void increaseMinionCount(Minion minion, int turn) {
-		String cardId = minion.getSourceCard().getCardId();
-		if (!getMinionsSummoned().containsKey(cardId)) {
-			getMinionsSummoned().put(cardId, new HashMap<Integer, Integer>());
-		}
-		if (!getMinionsSummoned().get(cardId).containsKey(turn)) {
-			getMinionsSummoned().get(cardId).put(turn, 0);
-		}
-		getMinionsSummoned().get(cardId).put(turn, getMinionsSummoned().get(cardId).get(turn) + 1);
+		increaseCount(getMinionsSummoned(), minion.getSourceCard().getCardId(), turn);
 	}
 	
 	private void increasePermanentCount(Permanent permanent, int turn) {
-		String cardId = permanent.getSourceCard().getCardId();
-		if (!getPermanentsSummoned().containsKey(cardId)) {
-			getPermanentsSummoned().put(cardId, new HashMap<Integer, Integer>());
-		}
-		if (!getPermanentsSummoned().get(cardId).containsKey(turn)) {
-			getPermanentsSummoned().get(cardId).put(turn, 0);
-		}
-		getPermanentsSummoned().get(cardId).put(turn, getPermanentsSummoned().get(cardId).get(turn) + 1);
+		increaseCount(getPermanentsSummoned(), permanent.getSourceCard().getCardId(), turn);
 	}
 
 	public void manaSpent(int mana) {
@@ -209,6 +198,7 @@ public class GameStatistics implements Cloneable {
 	}
 
 	public void set(Statistic key, Object value) {
+		UndoJournal.recordMapPut(stats, key);
 		stats.put(key, value);
 	}
 
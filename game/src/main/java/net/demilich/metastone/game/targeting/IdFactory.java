@@ -2,6 +2,7 @@ package net.demilich.metastone.game.targeting;
 
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.logic.CustomCloneable;
+import net.demilich.metastone.game.logic.UndoJournal;
 
 public class IdFactory extends CustomCloneable {
 
@@ -25,6 +26,7 @@ public class IdFactory extends CustomCloneable {
 	}
 
 	public int generateId() {
+		UndoJournal.record(() -> id--);
 		return ++id;
 	}
 
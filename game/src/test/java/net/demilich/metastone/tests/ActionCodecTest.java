@@ -0,0 +1,76 @@
+package net.demilich.metastone.tests;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import net.demilich.metastone.game.GameContext;
+import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.GameAction;
+import net.demilich.metastone.game.behaviour.PlayRandomBehaviour;
+import net.demilich.metastone.game.cards.CardSet;
+import net.demilich.metastone.game.decks.DeckFactory;
+import net.demilich.metastone.game.decks.DeckFormat;
+import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.gameconfig.PlayerConfig;
+import net.demilich.metastone.game.logic.GameLogic;
+
+public class ActionCodecTest extends TestBase {
+
+	private static class EncodingBehaviour extends PlayRandomBehaviour {
+
+		// shared between the copies which are handed to each player
+		private final AtomicInteger encodedActions = new AtomicInteger();
+
+		@Override
+		public GameAction requestAction(GameContext context, Player player, List<GameAction> validActions) {
+			// battlecries and discovers are requested with other lists
+			if (validActions != context.getValidActions()) {
+				return super.requestAction(context, player, validActions);
+			}
+			int[] codes = new int[validActions.size()];
+			Assert.assertEquals(context.encodeValidActions(codes), validActions.size());
+			Set<Integer> distinctCodes = new HashSet<>();
+			for (int i = 0; i < codes.length; i++) {
+				GameAction action = validActions.get(i);
+				Assert.assertEquals(context.encodeAction(action), codes[i]);
+				Assert.assertEquals(context.decodeAction(codes[i]).toString(), action.toString());
+				distinctCodes.add(codes[i]);
+				encodedActions.incrementAndGet();
+			}
+			Assert.assertEquals(distinctCodes.size(), codes.length, "Codes are not unique: " + validActions);
+			return context.decodeAction(codes[context.getLogic().random(codes.length)]);
+		}
+
+	}
+
+	@Test
+	public void testEncodeValidActions() {
+		DeckFormat deckFormat = new DeckFormat();
+		for (CardSet set : CardSet.values()) {
+			deckFormat.addSet(set);
+		}
+		EncodingBehaviour behaviour = new EncodingBehaviour();
+		for (int i = 0; i < 20; i++) {
+			PlayerConfig player1Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.DRUID, deckFormat), behaviour);
+			player1Config.setName("Player 1");
+			player1Config.setHeroCard(getHeroCardForClass(HeroClass.DRUID));
+			Player player1 = new Player(player1Config);
+
+			PlayerConfig player2Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.HUNTER, deckFormat), behaviour);
+			player2Config.setName("Player 2");
+			player2Config.setHeroCard(getHeroCardForClass(HeroClass.HUNTER));
+			Player player2 = new Player(player2Config);
+
+			GameContext context = new GameContext(player1, player2, new GameLogic(), deckFormat);
+			context.play();
+			context.dispose();
+		}
+		Assert.assertTrue(behaviour.encodedActions.get() > 0);
+	}
+
+}
@@ -0,0 +1,93 @@
+package net.demilich.metastone.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import net.demilich.metastone.game.cards.Card;
+import net.demilich.metastone.game.cards.CardCatalogue;
+import net.demilich.metastone.game.cards.CardParser;
+import net.demilich.metastone.game.cards.SpellCard;
+import net.demilich.metastone.game.cards.desc.CardDesc;
+import net.demilich.metastone.game.cards.desc.CardDescCache;
+import net.demilich.metastone.game.spells.desc.SpellDesc;
+import net.demilich.metastone.utils.ResourceInputStream;
+import net.demilich.metastone.utils.ResourceLoader;
+
+public class CardDescCacheTest extends TestBase {
+
+	private static List<byte[]> readAll(List<Path> cardFiles) throws IOException {
+		List<byte[]> contents = new ArrayList<>();
+		for (Path cardFile : cardFiles) {
+			contents.add(Files.readAllBytes(cardFile));
+		}
+		return contents;
+	}
+
+	@Test
+	public void testHashIncludesCode() throws NoSuchAlgorithmException {
+		byte[] hash = CardDescCache.hash(Collections.emptyList(), Collections.emptyList());
+		Assert.assertNotEquals(hash, MessageDigest.getInstance("SHA-1").digest());
+		Assert.assertEquals(CardDescCache.hash(Collections.emptyList(), Collections.emptyList()), hash);
+	}
+
+	@Test
+	public void testReadWrite() throws IOException, URISyntaxException {
+		Path cacheFile = Files.createTempFile("cards", ".bin");
+		try {
+			Files.delete(cacheFile);
+			List<Path> cardFiles = ResourceLoader.loadJsonPaths(CardCatalogue.CARDS_FOLDER, false);
+			List<byte[]> contents = readAll(cardFiles);
+			CardDescCache cache = new CardDescCache(cacheFile, CardDescCache.hash(cardFiles, contents));
+			Assert.assertNull(cache.read());
+
+			List<CardDesc> parsed = new ArrayList<>();
+			CardParser cardParser = new CardParser();
+			for (int i = 0; i < cardFiles.size(); i++) {
+				String fileName = cardFiles.get(i).getFileName().toString();
+				try {
+					parsed.add(cardParser.parseCard(new ResourceInputStream(fileName, new ByteArrayInputStream(contents.get(i)), false)));
+				} catch (RuntimeException e) {
+					// invalid cards are reported by CardCatalogue
+				}
+			}
+			cache.write(parsed);
+
+			List<CardDesc> cached = new CardDescCache(cacheFile, CardDescCache.hash(cardFiles, contents)).read();
+			Assert.assertNotNull(cached);
+			Assert.assertEquals(cached.size(), parsed.size());
+			for (int i = 0; i < parsed.size(); i++) {
+				Card expected = parsed.get(i).createInstance();
+				Card actual = cached.get(i).createInstance();
+				Assert.assertEquals(actual.getClass(), expected.getClass());
+				Assert.assertEquals(actual.toString(), expected.toString());
+				Assert.assertEquals(actual.getDescription(), expected.getDescription());
+				Assert.assertEquals(actual.getAttributes().keySet(), expected.getAttributes().keySet());
+				if (expected instanceof SpellCard) {
+					SpellDesc expectedSpell = ((SpellCard) expected).getSpell();
+					SpellDesc actualSpell = ((SpellCard) actual).getSpell();
+					Assert.assertEquals(actualSpell.getSpellClass(), expectedSpell.getSpellClass(), expected.getCardId());
+					Assert.assertSame(actualSpell.getTarget(), expectedSpell.getTarget(), expected.getCardId());
+					Assert.assertEquals(actualSpell.getTargetPlayer(), expectedSpell.getTargetPlayer(), expected.getCardId());
+					Assert.assertEquals(actualSpell.getEntityFilter() != null, expectedSpell.getEntityFilter() != null, expected.getCardId());
+				}
+			}
+
+			byte[] changedHash = CardDescCache.hash(cardFiles.subList(1, cardFiles.size()), contents.subList(1, contents.size()));
+			Assert.assertNull(new CardDescCache(cacheFile, changedHash).read());
+		} finally {
+			Files.deleteIfExists(cacheFile);
+		}
+	}
+
+}
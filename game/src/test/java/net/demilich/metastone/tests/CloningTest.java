@@ -1,24 +1,31 @@
 package net.demilich.metastone.tests;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.behaviour.PlayRandomBehaviour;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.CardCollection;
 import net.demilich.metastone.game.cards.CardSet;
 import net.demilich.metastone.game.cards.SpellCard;
+import net.demilich.metastone.game.cards.costmodifier.CardCostModifier;
 import net.demilich.metastone.game.decks.DeckFactory;
 import net.demilich.metastone.game.decks.DeckFormat;
 import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.entities.minions.Minion;
 import net.demilich.metastone.game.logic.GameLogic;
 import net.demilich.metastone.game.gameconfig.PlayerConfig;
+import net.demilich.metastone.game.spells.DamageSpell;
 
 public class CloningTest extends TestBase {
 
@@ -37,7 +44,7 @@ public class CloningTest extends TestBase {
 				Assert.assertTrue(cloneCard instanceof SpellCard, "cloneCard is instanceof " + cloneCard.getClass().getSimpleName());
 				SpellCard originalSpellCard = (SpellCard) originalCard;
 				SpellCard cloneSpellCard = (SpellCard) cloneCard;
-				Assert.assertNotSame(originalSpellCard.getSpell(), cloneSpellCard.getSpell());
+				Assert.assertSame(originalSpellCard.getSpell(), cloneSpellCard.getSpell());
 			}
 		}
 	}
@@ -49,7 +56,7 @@ public class CloningTest extends TestBase {
 		Assert.assertNotSame(original, clone);
 		SpellCard originalSpellCard = (SpellCard) original;
 		SpellCard cloneSpellCard = (SpellCard) clone;
-		Assert.assertNotSame(originalSpellCard.getSpell(), cloneSpellCard.getSpell());
+		Assert.assertSame(originalSpellCard.getSpell(), cloneSpellCard.getSpell());
 	}
 
 	@Test
@@ -110,4 +117,99 @@ public class CloningTest extends TestBase {
 			Assert.assertEquals(testMinion.getHp(), 3);
 		}
 	}
+
+	@Test
+	public void testCloneHasSameZobristKey() {
+		DeckFormat deckFormat = new DeckFormat();
+		for (CardSet set : CardSet.values()) {
+			deckFormat.addSet(set);
+		}
+		// the clone computes its key from scratch, the original has updated
+		// its key along the way
+		PlayRandomBehaviour behaviour = new PlayRandomBehaviour() {
+
+			@Override
+			public GameAction requestAction(GameContext context, Player player, List<GameAction> validActions) {
+				Assert.assertEquals(context.clone().getZobristKey(), context.getZobristKey());
+				return super.requestAction(context, player, validActions);
+			}
+
+		};
+		for (int i = 0; i < 20; i++) {
+			PlayerConfig player1Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.ROGUE, deckFormat), behaviour);
+			player1Config.setName("Player 1");
+			player1Config.setHeroCard(getHeroCardForClass(HeroClass.ROGUE));
+			Player player1 = new Player(player1Config);
+
+			PlayerConfig player2Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.SHAMAN, deckFormat), behaviour);
+			player2Config.setName("Player 2");
+			player2Config.setHeroCard(getHeroCardForClass(HeroClass.SHAMAN));
+			Player player2 = new Player(player2Config);
+
+			GameContext context = new GameContext(player1, player2, new GameLogic(), deckFormat);
+			context.play();
+			context.dispose();
+		}
+	}
+
+	@Test
+	public void testZobristKeyTracksChanges() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		long initialKey = context.getZobristKey();
+		Minion minion = playMinionCard(context, player, new TestMinionCard(3, 3));
+		long keyWithMinion = context.getZobristKey();
+		Assert.assertNotEquals(keyWithMinion, initialKey);
+
+		minion.modifyAttribute(Attribute.ATTACK_BONUS, 1);
+		Assert.assertNotEquals(context.getZobristKey(), keyWithMinion);
+		minion.modifyAttribute(Attribute.ATTACK_BONUS, -1);
+		Assert.assertEquals(context.getZobristKey(), keyWithMinion);
+
+		int mana = player.getMana();
+		player.setMana(mana + 1);
+		Assert.assertNotEquals(context.getZobristKey(), keyWithMinion);
+		player.setMana(mana);
+		Assert.assertEquals(context.getZobristKey(), keyWithMinion);
+		Assert.assertEquals(context.clone().getZobristKey(), keyWithMinion);
+	}
+
+	@Test
+	public void testCloneDoesNotLeakAttributeChanges() {
+		GameContext original = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = original.getPlayer1();
+		Minion originalMinion = playMinionCard(original, player, new TestMinionCard(3, 3));
+		Card originalCard = player.getDeck().get(0);
+
+		GameContext clone = original.clone();
+		Minion cloneMinion = clone.getPlayer1().getMinions().get(0);
+		Card cloneCard = clone.getPlayer1().getDeck().get(0);
+		Assert.assertNotSame(originalMinion, cloneMinion);
+		Assert.assertNotSame(originalCard, cloneCard);
+
+		cloneMinion.modifyAttribute(Attribute.ATTACK_BONUS, 2);
+		cloneMinion.addDeathrattle(DamageSpell.create(1));
+		cloneCard.setAttribute(Attribute.MANA_COST_MODIFIER, 1);
+		Assert.assertEquals(cloneMinion.getAttack(), 5);
+		Assert.assertEquals(originalMinion.getAttack(), 3);
+		Assert.assertFalse(originalMinion.hasAttribute(Attribute.DEATHRATTLES));
+		Assert.assertFalse(originalCard.hasAttribute(Attribute.MANA_COST_MODIFIER));
+
+		originalMinion.setAttribute(Attribute.TAUNT);
+		Assert.assertFalse(cloneMinion.hasAttribute(Attribute.TAUNT));
+	}
+
+	@Test
+	public void testCloneKeepsCardCostModifiersRegistered() {
+		GameContext original = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = original.getPlayer1();
+		playCard(original, player, CardCatalogue.getCardById("minion_sorcerers_apprentice"));
+		Assert.assertEquals(original.getCardCostModifiers().size(), 1);
+
+		GameContext clone = original.clone();
+		CardCostModifier cloneModifier = clone.getCardCostModifiers().get(0);
+		Assert.assertNotSame(cloneModifier, original.getCardCostModifiers().get(0));
+		Minion apprentice = clone.getPlayer1().getMinions().get(0);
+		Assert.assertTrue(clone.getTriggersAssociatedWith(apprentice.getReference()).contains(cloneModifier));
+	}
 }
@@ -5,10 +5,36 @@ import org.testng.annotations.Test;
 
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
+import net.demilich.metastone.game.cards.MinionCard;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.entities.minions.Minion;
 
 public class ManaTests extends TestBase {
+
+	@Test
+	public void testCostModifiersInvalidateCachedCosts() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		player.setMana(10);
+		Card fireball = CardCatalogue.getCardById("spell_fireball");
+		context.getLogic().receiveCard(player.getId(), fireball);
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 4);
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 4);
+
+		Card apprentice = CardCatalogue.getCardById("minion_sorcerers_apprentice");
+		context.getLogic().receiveCard(player.getId(), apprentice);
+		context.getLogic().makeGameAction(player.getId(), apprentice.play());
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 3);
+		context.getLogic().unmakeGameAction();
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 4);
+
+		Minion minion = playMinionCard(context, player, (MinionCard) CardCatalogue.getCardById("minion_sorcerers_apprentice"));
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 3);
+		context.getLogic().destroy(minion);
+		Assert.assertEquals(context.getLogic().getModifiedManaCost(player, fireball), 4);
+	}
 	
 	@Test
 	public void testDarnassusAspirant() {
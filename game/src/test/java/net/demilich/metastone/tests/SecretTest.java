@@ -202,4 +202,33 @@ public class SecretTest extends TestBase {
 		Assert.assertEquals(player.getSecrets().size(), 0);
 	}
 
+	@Test
+	public void testStealSecretAndUndo() {
+		DebugContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player mage = context.getPlayer1();
+		mage.setMana(10);
+		Player warrior = context.getPlayer2();
+		warrior.setMana(10);
+
+		playCard(context, mage, new TestSecretCard());
+		Assert.assertEquals(context.getLogic().getSecrets(mage).size(), 1);
+
+		context.setActivePlayer(warrior.getId());
+		Card kezanMystic = CardCatalogue.getCardById("minion_kezan_mystic");
+		context.getLogic().receiveCard(warrior.getId(), kezanMystic);
+		context.getLogic().makeGameAction(warrior.getId(), kezanMystic.play());
+		Assert.assertEquals(context.getLogic().getSecrets(mage).size(), 0);
+		Assert.assertEquals(context.getLogic().getSecrets(warrior).size(), 1);
+		Assert.assertEquals(context.getTriggersAssociatedWith(warrior.getHero().getReference()).size(), 1);
+
+		context.getLogic().unmakeGameAction();
+		Assert.assertEquals(context.getLogic().getSecrets(mage).size(), 1);
+		Assert.assertEquals(context.getLogic().getSecrets(warrior).size(), 0);
+		Assert.assertTrue(context.getTriggersAssociatedWith(warrior.getHero().getReference()).isEmpty());
+
+		context.getLogic().removeSecrets(mage);
+		Assert.assertTrue(context.getLogic().getSecrets(mage).isEmpty());
+		Assert.assertTrue(context.getTriggersAssociatedWith(mage.getHero().getReference()).isEmpty());
+	}
+
 }
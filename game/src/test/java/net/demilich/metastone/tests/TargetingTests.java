@@ -10,11 +10,15 @@ import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
 import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.actions.PhysicalAttackAction;
+import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
 import net.demilich.metastone.game.cards.MinionCard;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.EntityType;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.entities.minions.Minion;
+import net.demilich.metastone.game.logic.EntityIndex;
+import net.demilich.metastone.game.logic.UndoJournal;
 
 public class TargetingTests extends TestBase {
 
@@ -64,4 +68,60 @@ public class TargetingTests extends TestBase {
 
 	}
 
+	@Test
+	public void testEntityIndexFollowsIdChanges() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player mage = context.getPlayer1();
+		EntityIndex index = context.getEntityIndex();
+		// deck cards get their ids after entering the deck
+		Card deckCard = mage.getDeck().get(0);
+		Assert.assertSame(index.get(deckCard.getId()), deckCard);
+
+		Minion minion = playMinionCard(context, mage, new TestMinionCard(1, 1, 0));
+		int id = minion.getId();
+		UndoJournal journal = new UndoJournal();
+		journal.checkpoint();
+		minion.setId(id + 1000);
+		Assert.assertNull(index.get(id));
+		Assert.assertSame(index.get(id + 1000), minion);
+		journal.rollback();
+		Assert.assertNull(index.get(id + 1000));
+		Assert.assertSame(index.get(id), minion);
+
+		mage.getSummons().remove(minion);
+		Assert.assertNull(index.get(id));
+	}
+
+	@Test
+	public void testFindEntityFollowsZoneChanges() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player mage = context.getPlayer1();
+
+		Card deckCard = mage.getDeck().get(0);
+		Assert.assertSame(context.resolveSingleTarget(deckCard.getReference()), deckCard);
+
+		MinionCard minionCard = new TestMinionCard(1, 1, 0);
+		context.getLogic().receiveCard(mage.getId(), minionCard);
+		Assert.assertSame(context.resolveSingleTarget(minionCard.getReference()), minionCard);
+
+		Minion minion = playMinionCard(context, mage, minionCard);
+		Assert.assertSame(context.getEntityIndex().get(minion.getId()), minion);
+		Assert.assertSame(context.resolveSingleTarget(minion.getReference()), minion);
+		Assert.assertSame(context.resolveSingleTarget(minionCard.getReference()), minionCard);
+
+		GameAction fireblast = mage.getHero().getHeroPower().play();
+		fireblast.setTarget(minion);
+		context.getLogic().makeGameAction(mage.getId(), fireblast);
+		Assert.assertTrue(mage.getGraveyard().contains(minion));
+		Assert.assertSame(context.resolveSingleTarget(minion.getReference()), minion);
+		context.getLogic().unmakeGameAction();
+		Assert.assertSame(context.getEntityIndex().get(minion.getId()), minion);
+		Assert.assertSame(context.resolveSingleTarget(minion.getReference()), minion);
+		Assert.assertSame(context.resolveSingleTarget(mage.getHero().getHeroPower().getReference()), mage.getHero().getHeroPower());
+
+		GameContext clone = context.clone();
+		Minion cloneMinion = clone.getPlayer1().getMinions().get(0);
+		Assert.assertSame(clone.resolveSingleTarget(minion.getReference()), cloneMinion);
+	}
+
 }
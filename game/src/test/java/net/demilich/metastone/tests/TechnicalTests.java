@@ -1,24 +1,254 @@
 package net.demilich.metastone.tests;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import net.demilich.metastone.game.Attribute;
 import net.demilich.metastone.game.GameContext;
 import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.ActionType;
 import net.demilich.metastone.game.actions.GameAction;
 import net.demilich.metastone.game.cards.Card;
 import net.demilich.metastone.game.cards.CardCatalogue;
+import net.demilich.metastone.game.cards.CardCollection;
+import net.demilich.metastone.game.cards.CardPool;
+import net.demilich.metastone.game.cards.CardType;
+import net.demilich.metastone.game.cards.SpellCard;
+import net.demilich.metastone.game.decks.DeckFormat;
+import net.demilich.metastone.game.entities.Actor;
 import net.demilich.metastone.game.entities.Entity;
 import net.demilich.metastone.game.entities.heroes.HeroClass;
 import net.demilich.metastone.game.entities.minions.Minion;
+import net.demilich.metastone.game.entities.minions.Race;
+import net.demilich.metastone.game.events.GameEvent;
+import net.demilich.metastone.game.events.GameEventType;
+import net.demilich.metastone.game.events.TurnStartEvent;
 import net.demilich.metastone.game.spells.DamageSpell;
+import net.demilich.metastone.game.spells.HealSpell;
+import net.demilich.metastone.game.spells.NullSpell;
+import net.demilich.metastone.game.spells.Spell;
+import net.demilich.metastone.game.spells.TargetPlayer;
+import net.demilich.metastone.game.spells.desc.BattlecryDesc;
+import net.demilich.metastone.game.spells.desc.SpellArg;
+import net.demilich.metastone.game.spells.desc.SpellDesc;
+import net.demilich.metastone.game.spells.desc.SpellFactory;
+import net.demilich.metastone.game.spells.desc.trigger.EventTriggerDesc;
+import net.demilich.metastone.game.spells.trigger.BoardChangedTrigger;
+import net.demilich.metastone.game.spells.trigger.HealingTrigger;
+import net.demilich.metastone.game.spells.trigger.SpellTrigger;
+import net.demilich.metastone.game.spells.trigger.TurnStartTrigger;
 import net.demilich.metastone.game.targeting.EntityReference;
 
 public class TechnicalTests extends TestBase {
 
+	@Test
+	public void testAttributeStore() {
+		Minion minion = new TestMinionCard(1, 1).summon();
+		minion.setAttribute(Attribute.TAUNT);
+		minion.setAttribute(Attribute.FROZEN, 0);
+		minion.setAttribute(Attribute.RACE, Race.BEAST);
+		minion.modifyAttribute(Attribute.HP_BONUS, 2);
+		Assert.assertTrue(minion.hasAttribute(Attribute.TAUNT));
+		Assert.assertFalse(minion.hasAttribute(Attribute.FROZEN));
+		Assert.assertEquals(minion.getAttribute(Attribute.FROZEN), 0);
+		Assert.assertEquals(minion.getAttribute(Attribute.RACE), Race.BEAST);
+		Assert.assertEquals(minion.getAttributeValue(Attribute.HP_BONUS), 2);
+		Assert.assertEquals(minion.getAttributeValue(Attribute.STEALTH), 0);
+		Assert.assertNull(minion.getAttribute(Attribute.STEALTH));
+
+		Minion clone = minion.clone();
+		clone.setAttribute(Attribute.RACE, 3);
+		clone.removeAttribute(Attribute.TAUNT);
+		Assert.assertEquals(clone.getAttributeValue(Attribute.RACE), 3);
+		Assert.assertFalse(clone.getAttributes().containsKey(Attribute.TAUNT));
+		Assert.assertEquals(minion.getAttribute(Attribute.RACE), Race.BEAST);
+		Assert.assertTrue(minion.hasAttribute(Attribute.TAUNT));
+
+		Map<Attribute, Object> attributes = new EnumMap<>(Attribute.class);
+		attributes.putAll(minion.getAttributes());
+		Assert.assertEquals(minion.getAttributes(), attributes);
+		Assert.assertEquals(new ArrayList<>(minion.getAttributes().keySet()), new ArrayList<>(attributes.keySet()));
+	}
+
+	@Test
+	public void testAttributeTotals() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.MAGE);
+		Player player = context.getActivePlayer();
+		player.setMana(10);
+		playCard(context, player, new TestMinionCard(1, 1));
+		playCard(context, player, new TestMinionCard(2, 2));
+		Minion minion = player.getMinions().get(0);
+		Assert.assertFalse(context.getLogic().hasAttribute(player, Attribute.SPELL_DAMAGE));
+
+		minion.setAttribute(Attribute.SPELL_DAMAGE, 2);
+		player.getMinions().get(1).setAttribute(Attribute.SPELL_DAMAGE, 1);
+		player.getHero().setAttribute(Attribute.SPELL_DAMAGE, 1);
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 4);
+		Assert.assertEquals(context.getLogic().getGreatestAttributeValue(player, Attribute.SPELL_DAMAGE), 2);
+		Assert.assertEquals(player.getSummonAttributeTotals().getCount(Attribute.SPELL_DAMAGE), 2);
+		GameContext clone = context.clone();
+		Assert.assertEquals(clone.getLogic().getTotalAttributeValue(clone.getActivePlayer(), Attribute.SPELL_DAMAGE), 4);
+
+		GameAction fireblast = null;
+		for (GameAction action : context.getValidActions()) {
+			if (action.getActionType() == ActionType.HERO_POWER && action.getTargetKey().equals(minion.getReference())) {
+				fireblast = action;
+			}
+		}
+		context.getLogic().makeGameAction(player.getId(), fireblast);
+		Assert.assertEquals(player.getMinions().size(), 1);
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 2);
+		Assert.assertEquals(context.getLogic().getGreatestAttributeValue(player, Attribute.SPELL_DAMAGE), 1);
+		context.getLogic().unmakeGameAction();
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 4);
+
+		minion.removeAttribute(Attribute.SPELL_DAMAGE);
+		player.getHero().removeAttribute(Attribute.SPELL_DAMAGE);
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 1);
+		Assert.assertEquals(clone.getLogic().getTotalAttributeValue(clone.getActivePlayer(), Attribute.SPELL_DAMAGE), 4);
+		Assert.assertTrue(context.getLogic().hasAttribute(player, Attribute.SPELL_DAMAGE));
+	}
+
+	@Test
+	public void testBoardChangedOnlyOnChange() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		int[] dispatches = new int[1];
+		SpellTrigger counter = new SpellTrigger(new BoardChangedTrigger(), NullSpell.create()) {
+
+			@Override
+			public void onGameEvent(GameEvent event) {
+				dispatches[0]++;
+			}
+
+		};
+		counter.setHost(player.getHero());
+		counter.setOwner(player.getId());
+		context.addTrigger(counter);
+
+		context.getLogic().destroy();
+		Assert.assertEquals(dispatches[0], 1);
+		context.getLogic().destroy();
+		Assert.assertEquals(dispatches[0], 1);
+
+		player.setMana(player.getMana() + 1);
+		context.getLogic().destroy();
+		Assert.assertEquals(dispatches[0], 2);
+	}
+
+	@Test
+	public void testCardCatalogueLookup() {
+		Card prototype = CardCatalogue.getPrototypeById("spell_corruption");
+		Assert.assertNotNull(prototype);
+		Assert.assertSame(CardCatalogue.getPrototypeById("SPELL_Corruption"), prototype);
+
+		Card card = CardCatalogue.getCardById("Spell_Corruption");
+		Assert.assertNotSame(card, prototype);
+		Assert.assertEquals(card.getCardId(), prototype.getCardId());
+		Assert.assertNotSame(CardCatalogue.getCardById("spell_corruption"), card);
+		Assert.assertEquals(CardCatalogue.getCardByName(prototype.getName()).getCardId(), prototype.getCardId());
+
+		Assert.assertNull(CardCatalogue.getCardById("spell_does_not_exist"));
+		Assert.assertNull(CardCatalogue.getCardById(null));
+	}
+
+	@Test
+	public void testCardPool() {
+		DeckFormat deckFormat = createContext(HeroClass.MAGE, HeroClass.WARRIOR).getDeckFormat();
+		CardPool.Query query = new CardPool.Query(CardType.MINION, null, HeroClass.MAGE, null, null, null);
+		CardPool pool = CardCatalogue.getPool(deckFormat, query);
+		Assert.assertFalse(pool.isEmpty());
+		Assert.assertSame(CardCatalogue.getPool(deckFormat, new CardPool.Query(CardType.MINION, null, HeroClass.MAGE, null, null, null)), pool);
+
+		CardCollection cards = CardCatalogue.query(deckFormat, CardType.MINION, null, HeroClass.MAGE);
+		Assert.assertEquals(pool.getCount(), cards.getCount());
+		for (int i = 0; i < pool.getCount(); i++) {
+			Assert.assertEquals(pool.get(i).getCardId(), cards.get(i).getCardId());
+			Assert.assertSame(pool.get(i), CardCatalogue.getPrototypeById(pool.get(i).getCardId()));
+		}
+
+		CardPool beasts = CardCatalogue.getPool(deckFormat, new CardPool.Query(CardType.MINION, null, null, Race.BEAST, 1, null));
+		Assert.assertFalse(beasts.isEmpty());
+		for (Card card : beasts) {
+			Assert.assertEquals(card.getAttribute(Attribute.RACE), Race.BEAST);
+			Assert.assertEquals(card.getBaseManaCost(), 1);
+		}
+	}
+
+	@Test
+	public void testCardPrototype() {
+		Card prototype = CardCatalogue.getPrototypeById("minion_abusive_sergeant");
+		Card card = CardCatalogue.getCardById("minion_abusive_sergeant");
+		Card copy = card.clone();
+		copy.setBattlecry(new BattlecryDesc());
+		copy.setDescription("changed");
+		copy.setCollectible(false);
+		Assert.assertTrue(copy.hasBattlecry());
+		Assert.assertEquals(copy.getDescription(), "changed");
+		Assert.assertFalse(copy.isCollectible());
+		Assert.assertEquals(copy.getCardId(), prototype.getCardId());
+		Assert.assertEquals(copy.getRarity(), prototype.getRarity());
+
+		for (Card unchanged : new Card[] { prototype, card }) {
+			Assert.assertFalse(unchanged.hasBattlecry());
+			Assert.assertEquals(unchanged.getDescription(), prototype.getDescription());
+			Assert.assertTrue(unchanged.isCollectible());
+		}
+	}
+
+	@Test
+	public void testClearAttributes() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.MAGE);
+		Player player = context.getActivePlayer();
+		player.setMana(10);
+		playCard(context, player, new TestMinionCard(1, 1));
+		Minion minion = player.getMinions().get(0);
+		minion.setAttribute(Attribute.SPELL_DAMAGE, 2);
+		Map<Attribute, Object> attributes = new EnumMap<>(minion.getAttributes());
+		long zobristKey = context.getZobristKey();
+		Assert.expectThrows(UnsupportedOperationException.class, () -> minion.getAttributes().clear());
+
+		minion.clearAttributes();
+		Assert.assertTrue(minion.getAttributes().isEmpty());
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 0);
+		Assert.assertNotEquals(context.getZobristKey(), zobristKey);
+
+		for (Map.Entry<Attribute, Object> entry : attributes.entrySet()) {
+			minion.setAttribute(entry.getKey(), entry.getValue());
+		}
+		Assert.assertEquals(context.getLogic().getTotalAttributeValue(player, Attribute.SPELL_DAMAGE), 2);
+		Assert.assertEquals(context.getZobristKey(), zobristKey);
+	}
+
+	@Test
+	public void testDeckClone() {
+		GameContext context = createContext(HeroClass.PALADIN, HeroClass.WARRIOR);
+		CardCollection deck = context.getPlayer1().getDeck();
+		Card card = deck.get(0);
+		Card changedCard = deck.get(1);
+
+		GameContext clone = context.clone();
+		Assert.assertEquals(clone.getZobristKey(), context.getZobristKey());
+		changedCard.setAttribute(Attribute.ATTACK_BONUS, 4711);
+		long version = clone.getStateVersion();
+		Card clonedCard = clone.getPlayer1().getDeck().find(card.getId());
+		Assert.assertNotSame(clonedCard, card);
+		Assert.assertSame(clone.resolveSingleTarget(clonedCard.getReference()), clonedCard);
+		Assert.assertNotEquals(clone.getPlayer1().getDeck().find(changedCard.getId()).getAttributeValue(Attribute.ATTACK_BONUS), 4711);
+		Assert.assertEquals(clone.getStateVersion(), version);
+
+		clonedCard.setAttribute(Attribute.ATTACK_BONUS, 4711);
+		Assert.assertNotEquals(card.getAttributeValue(Attribute.ATTACK_BONUS), 4711);
+		Assert.assertEquals(context.clone().getPlayer1().getDeck().find(changedCard.getId()).getAttributeValue(Attribute.ATTACK_BONUS), 4711);
+	}
+
 	@Test
 	public void testDoubleCorruption() {
 		GameContext context = createContext(HeroClass.WARLOCK, HeroClass.WARRIOR);
@@ -51,6 +281,159 @@ public class TechnicalTests extends TestBase {
 		context.getLogic().startTurn(GameContext.PLAYER_1);
 	}
 
+	@Test
+	public void testGraveyardClone() {
+		GameContext context = createContext(HeroClass.PALADIN, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		playCard(context, player, new TestMinionCard(1, 1));
+		Minion minion = player.getMinions().get(0);
+		context.getLogic().destroy(minion);
+		int index = player.getGraveyard().indexOf(minion);
+		Assert.assertNotEquals(index, -1);
+
+		GameContext clone = context.clone();
+		Assert.assertEquals(clone.getZobristKey(), context.getZobristKey());
+		minion.setAttribute(Attribute.ATTACK_BONUS, 4711);
+		long version = clone.getStateVersion();
+		Entity clonedMinion = clone.getPlayer1().getGraveyard().get(index);
+		Assert.assertNotSame(clonedMinion, minion);
+		Assert.assertNotEquals(clonedMinion.getAttributeValue(Attribute.ATTACK_BONUS), 4711);
+		Assert.assertSame(clone.getPlayer1().getGraveyard().get(index), clonedMinion);
+		Assert.assertSame(clone.resolveSingleTarget(minion.getReference()), clonedMinion);
+		Assert.assertEquals(clone.getStateVersion(), version);
+	}
+
+	@Test
+	public void testMinionLists() {
+		GameContext context = createContext(HeroClass.PALADIN, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		List<Minion> minions = player.getMinions();
+		List<Actor> characters = player.getCharacters();
+		Assert.assertSame(player.getMinions(), minions);
+		Assert.assertSame(player.getCharacters(), characters);
+		Assert.assertSame(characters.get(0), player.getHero());
+
+		playCard(context, player, new TestMinionCard(1, 1));
+		Assert.assertTrue(minions.isEmpty());
+		Assert.assertEquals(characters.size(), 1);
+		Assert.assertEquals(player.getMinions().size(), 1);
+		Assert.assertEquals(player.getCharacters().size(), 2);
+		Assert.assertSame(player.getCharacters().get(1), player.getMinions().get(0));
+		Assert.assertTrue(player.getPermanents().isEmpty());
+		try {
+			player.getMinions().clear();
+			Assert.fail("minion list is modifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	public void testSharedSpells() {
+		SpellFactory spellFactory = new SpellFactory();
+		Spell spell = spellFactory.getSpell(DamageSpell.create(EntityReference.ENEMY_HERO, 1));
+		Assert.assertTrue(spell instanceof DamageSpell);
+		Assert.assertSame(new SpellFactory().getSpell(DamageSpell.create(EntityReference.ALL_MINIONS, 2)), spell);
+		Assert.assertNotSame(spellFactory.getSpell(HealSpell.create(EntityReference.FRIENDLY_HERO, 1)), spell);
+	}
+
+	@Test
+	public void testSpellCardSnapshot() {
+		SpellDesc spell = DamageSpell.create(EntityReference.ENEMY_HERO, 1);
+		TestSpellCard card = new TestSpellCard(spell);
+		SpellCard snapshot = (SpellCard) card.getSnapshot();
+		Assert.assertSame(card.getSnapshot(), snapshot);
+
+		SpellDesc recast = spell.addArg(SpellArg.FILTER, null);
+		card.setSpell(recast);
+		Assert.assertNotSame(card.getSnapshot(), snapshot);
+		Assert.assertSame(((SpellCard) card.getSnapshot()).getSpell(), recast);
+		Assert.assertSame(snapshot.getSpell(), spell);
+	}
+
+	@Test
+	public void testSpellDescArguments() {
+		SpellDesc spell = DamageSpell.create(EntityReference.ENEMY_HERO, 1);
+		SpellDesc randomSpell = spell.addArg(SpellArg.RANDOM_TARGET, true).addArg(SpellArg.TARGET_PLAYER, TargetPlayer.BOTH);
+		Assert.assertTrue(randomSpell.isRandomTarget());
+		Assert.assertEquals(randomSpell.getTargetPlayer(), TargetPlayer.BOTH);
+		Assert.assertEquals(randomSpell.getTarget(), EntityReference.ENEMY_HERO);
+		Assert.assertFalse(spell.isRandomTarget());
+		Assert.assertNull(spell.getTargetPlayer());
+		Assert.assertFalse(randomSpell.removeArg(SpellArg.TARGET).hasPredefinedTarget());
+		Assert.assertSame(randomSpell.getSharedSpell(), spell.getSharedSpell());
+	}
+
+	@Test
+	public void testSpellDescOverlays() {
+		SpellDesc spell = DamageSpell.create(EntityReference.ENEMY_HERO, 1);
+		SpellDesc overlay = spell;
+		for (int i = 2; i <= 10; i++) {
+			overlay = overlay.addArg(SpellArg.VALUE, i).addArg(SpellArg.RANDOM_TARGET, i % 2 == 0);
+		}
+		Assert.assertEquals(overlay.getInt(SpellArg.VALUE, 0), 10);
+		Assert.assertTrue(overlay.isRandomTarget());
+		Assert.assertEquals(overlay.getTarget(), EntityReference.ENEMY_HERO);
+
+		overlay = overlay.removeArg(SpellArg.VALUE).removeArg(SpellArg.TARGET);
+		for (int i = 0; i < 10; i++) {
+			overlay = overlay.addArg(SpellArg.HOW_MANY, i);
+		}
+		Assert.assertFalse(overlay.contains(SpellArg.VALUE));
+		Assert.assertFalse(overlay.hasPredefinedTarget());
+		Assert.assertEquals(overlay.getInt(SpellArg.HOW_MANY, 0), 9);
+		Assert.assertSame(overlay.getSpellClass(), DamageSpell.class);
+
+		Assert.assertEquals(spell.getInt(SpellArg.VALUE, 0), 1);
+		Assert.assertFalse(spell.isRandomTarget());
+		Assert.assertFalse(spell.contains(SpellArg.HOW_MANY));
+	}
+
+	@Test
+	public void testStateVersion() {
+		GameContext context = createContext(HeroClass.PALADIN, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		player.setMana(10);
+		long version = context.getStateVersion();
+		Assert.assertNull(context.tryFind(new EntityReference(4711)));
+		Assert.assertEquals(context.getStateVersion(), version);
+
+		playCard(context, player, CardCatalogue.getCardById("minion_stormwind_champion"));
+		Assert.assertNotEquals(context.getStateVersion(), version);
+		version = context.getStateVersion();
+
+		TestMinionCard minionCard = new TestMinionCard(1, 1);
+		playCard(context, player, minionCard);
+		Assert.assertNotEquals(context.getStateVersion(), version);
+		Minion minion = player.getMinions().get(1);
+		Assert.assertEquals(minion.getAttack(), 2);
+		Assert.assertEquals(minion.getHp(), 2);
+	}
+
+	@Test
+	public void testTriggerExpiredByOtherEvent() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		SpellTrigger healTrigger = new SpellTrigger(new HealingTrigger(EventTriggerDesc.createEmpty(HealingTrigger.class)), NullSpell.create());
+		SpellTrigger expiringTrigger = new SpellTrigger(new TurnStartTrigger(), NullSpell.create()) {
+
+			@Override
+			public void onGameEvent(GameEvent event) {
+				healTrigger.expire();
+			}
+
+		};
+		for (SpellTrigger trigger : new SpellTrigger[] { healTrigger, expiringTrigger }) {
+			trigger.setHost(player.getHero());
+			trigger.setOwner(player.getId());
+			context.addTrigger(trigger);
+		}
+		Assert.assertTrue(context.hasGameEventListeners(GameEventType.HEAL));
+
+		context.fireGameEvent(new TurnStartEvent(context, player.getId()));
+		Assert.assertFalse(context.getTriggersAssociatedWith(player.getHero().getReference()).contains(healTrigger));
+		Assert.assertFalse(context.hasGameEventListeners(GameEventType.HEAL));
+	}
+
 	@Test
 	public void testTriplePyromancer() {
 		GameContext context = createContext(HeroClass.PRIEST, HeroClass.WARRIOR);
@@ -79,4 +462,35 @@ public class TechnicalTests extends TestBase {
 			Assert.assertEquals(minion.getHp(), -1);
 		}
 	}
+
+	@Test
+	public void testValidActions() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.MAGE);
+		Player player = context.getActivePlayer();
+		player.setMana(10);
+		playCard(context, player, new TestMinionCard(1, 1));
+
+		List<GameAction> validActions = context.getValidActions();
+		Assert.assertSame(context.getValidActions(), validActions);
+		List<GameAction> fireblasts = new ArrayList<>();
+		Set<EntityReference> targets = new HashSet<>();
+		for (int i = 0; i < validActions.size(); i++) {
+			GameAction action = validActions.get(i);
+			Assert.assertSame(validActions.get(i), action);
+			if (action.getActionType() == ActionType.HERO_POWER) {
+				fireblasts.add(action);
+				targets.add(action.getTargetKey());
+			}
+		}
+		// both heroes and the minion
+		Assert.assertEquals(fireblasts.size(), 3);
+		Assert.assertEquals(targets.size(), 3);
+
+		context.getLogic().makeGameAction(player.getId(), fireblasts.get(0));
+		Assert.assertNotSame(context.getValidActions(), validActions);
+		context.getLogic().unmakeGameAction();
+		List<GameAction> restoredActions = context.getValidActions();
+		Assert.assertNotSame(restoredActions, validActions);
+		Assert.assertEquals(restoredActions.size(), validActions.size());
+	}
 }
@@ -0,0 +1,183 @@
+package net.demilich.metastone.tests;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import net.demilich.metastone.game.GameContext;
+import net.demilich.metastone.game.Player;
+import net.demilich.metastone.game.actions.GameAction;
+import net.demilich.metastone.game.behaviour.PlayRandomBehaviour;
+import net.demilich.metastone.game.cards.CardSet;
+import net.demilich.metastone.game.decks.DeckFactory;
+import net.demilich.metastone.game.decks.DeckFormat;
+import net.demilich.metastone.game.entities.Entity;
+import net.demilich.metastone.game.entities.heroes.HeroClass;
+import net.demilich.metastone.game.gameconfig.PlayerConfig;
+import net.demilich.metastone.game.logic.GameLogic;
+import net.demilich.metastone.game.logic.UndoJournal;
+import net.demilich.metastone.game.spells.DamageSpell;
+import net.demilich.metastone.game.spells.desc.SpellArg;
+import net.demilich.metastone.game.spells.desc.SpellDesc;
+import net.demilich.metastone.game.targeting.EntityReference;
+
+public class UndoJournalTest extends TestBase {
+
+	private static class UnmakingBehaviour extends PlayRandomBehaviour {
+
+		// shared between the copies which are handed to each player
+		private final AtomicInteger unmadeActions = new AtomicInteger();
+
+		@Override
+		public GameAction requestAction(GameContext context, Player player, List<GameAction> validActions) {
+			if (context.getLogic().canMakeGameAction()) {
+				for (GameAction action : validActions) {
+					String before = describe(context);
+					context.getLogic().makeGameAction(player.getId(), action);
+					context.gameDecided();
+					context.getLogic().unmakeGameAction();
+					Assert.assertEquals(describe(context), before, "State differs after unmaking " + action);
+					unmadeActions.incrementAndGet();
+				}
+			}
+			return super.requestAction(context, player, validActions);
+		}
+
+	}
+
+	private static void describe(StringBuilder builder, GameContext context, String zone, Iterable<? extends Entity> entities) {
+		builder.append(zone).append(":\n");
+		for (Entity entity : entities) {
+			builder.append('\t').append(entity.getId()).append(' ').append(entity.getName()).append(' ').append(entity.getOwner());
+			builder.append(' ').append(entity.getAttributes()).append('\n');
+			builder.append("\t\t").append(context.getTriggersAssociatedWith(entity.getReference())).append('\n');
+		}
+	}
+
+	private static String describe(GameContext context) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Turn ").append(context.getTurn()).append(' ').append(context.getTurnState());
+		builder.append(" active ").append(context.getActivePlayerId()).append(" key ").append(context.getZobristKey()).append('\n');
+		builder.append("Environment ").append(new TreeMap<>(context.getEnvironment())).append('\n');
+		builder.append("Cost modifiers ").append(context.getCardCostModifiers()).append('\n');
+		for (Player player : context.getPlayers()) {
+			builder.append(player.getName()).append(' ').append(player.getMana()).append('/').append(player.getMaxMana());
+			builder.append(" locked ").append(player.getLockedMana()).append(' ').append(player.getAttributes()).append('\n');
+			// hash sets may iterate in a different order after rollback
+			builder.append("Secrets ").append(new TreeSet<>(player.getSecrets()));
+			builder.append(" quests ").append(new TreeSet<>(player.getQuests())).append('\n');
+			builder.append(player.getStatistics()).append('\n');
+			describe(builder, context, "Hero", Collections.singletonList(player.getHero()));
+			describe(builder, context, "Hand", player.getHand());
+			describe(builder, context, "Deck", player.getDeck());
+			describe(builder, context, "Summons", player.getSummons());
+			describe(builder, context, "Graveyard", player.getGraveyard());
+			describe(builder, context, "Set aside", player.getSetAsideZone());
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void testFailedActionIsRolledBack() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		String before = describe(context);
+		GameAction failingAction = new GameAction() {
+
+			@Override
+			public void execute(GameContext context, int playerId) {
+				context.getPlayer(playerId).setMana(7);
+				throw new UnsupportedOperationException("failing action");
+			}
+
+			@Override
+			public String getPromptText() {
+				return null;
+			}
+
+			@Override
+			public boolean isSameActionGroup(GameAction anotherAction) {
+				return false;
+			}
+
+		};
+		failingAction.setSource(player.getHero().getReference());
+
+		try {
+			context.getLogic().makeGameAction(player.getId(), failingAction);
+			Assert.fail("action did not throw");
+		} catch (UnsupportedOperationException e) {
+		}
+		Assert.assertNull(UndoJournal.current());
+		Assert.assertTrue(context.getLogic().canMakeGameAction());
+		Assert.assertEquals(describe(context), before);
+	}
+
+	@Test
+	public void testRollbackRestoresSpell() {
+		SpellDesc spell = DamageSpell.create(EntityReference.ENEMY_HERO, 1);
+		TestSpellCard card = new TestSpellCard(spell);
+		UndoJournal journal = new UndoJournal();
+		journal.checkpoint();
+		card.setSpell(spell.addArg(SpellArg.FILTER, null));
+		Assert.assertNotSame(card.getSpell(), spell);
+		journal.rollback();
+		Assert.assertSame(card.getSpell(), spell);
+	}
+
+	@Test
+	public void testUnmakeRestoresGameState() {
+		DeckFormat deckFormat = new DeckFormat();
+		for (CardSet set : CardSet.values()) {
+			deckFormat.addSet(set);
+		}
+		UnmakingBehaviour behaviour = new UnmakingBehaviour();
+		for (int i = 0; i < 20; i++) {
+			PlayerConfig player1Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.MAGE, deckFormat), behaviour);
+			player1Config.setName("Player 1");
+			player1Config.setHeroCard(getHeroCardForClass(HeroClass.MAGE));
+			Player player1 = new Player(player1Config);
+
+			PlayerConfig player2Config = new PlayerConfig(DeckFactory.getRandomDeck(HeroClass.PRIEST, deckFormat), behaviour);
+			player2Config.setName("Player 2");
+			player2Config.setHeroCard(getHeroCardForClass(HeroClass.PRIEST));
+			Player player2 = new Player(player2Config);
+
+			GameContext context = new GameContext(player1, player2, new GameLogic(), deckFormat);
+			context.play();
+			context.dispose();
+		}
+		Assert.assertTrue(behaviour.unmadeActions.get() > 0);
+	}
+
+	@Test
+	public void testNestedUnmake() {
+		GameContext context = createContext(HeroClass.MAGE, HeroClass.WARRIOR);
+		Player player = context.getPlayer1();
+		TestMinionCard firstCard = new TestMinionCard(3, 3);
+		TestMinionCard secondCard = new TestMinionCard(2, 2);
+		context.getLogic().receiveCard(player.getId(), firstCard);
+		context.getLogic().receiveCard(player.getId(), secondCard);
+		int handSize = player.getHand().getCount();
+		String initialState = describe(context);
+
+		context.getLogic().makeGameAction(player.getId(), firstCard.play());
+		Assert.assertEquals(player.getMinions().size(), 1);
+		String intermediateState = describe(context);
+		context.getLogic().makeGameAction(player.getId(), secondCard.play());
+		Assert.assertEquals(player.getMinions().size(), 2);
+
+		context.getLogic().unmakeGameAction();
+		Assert.assertEquals(describe(context), intermediateState);
+		context.getLogic().unmakeGameAction();
+		Assert.assertEquals(describe(context), initialState);
+		Assert.assertEquals(player.getMinions().size(), 0);
+		Assert.assertEquals(player.getHand().getCount(), handSize);
+	}
+
+}
@@ -21,7 +21,9 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -54,12 +56,7 @@ public class ResourceLoader {
 			throw new RuntimeException("rootDir cannot be null");
 		}
 
-		PathReference pathReference;
-		if (fromFileSystem) {
-			pathReference = new PathReference(Paths.get(rootDir), false);
-		} else { // from resources
-			pathReference = getPathFromResources(rootDir);
-		}
+		PathReference pathReference = getPathReference(rootDir, fromFileSystem);
 
 		Collection<ResourceInputStream> inputStreams = new ArrayList<>();
 
@@ -85,6 +82,49 @@ public class ResourceLoader {
 		return inputStreams;
 	}
 
+	/**
+	 * Finds all the json files below the given rootDir without opening them,
+	 * so callers can read them one at a time. The paths are sorted by file
+	 * name to get the same order on every file system.
+	 * 
+	 * @param rootDir
+	 *            the root dir from where to start traversing to find the json
+	 *            files
+	 * @param fromFileSystem
+	 *            True if the rootDir is on the filesystem, False if the rootDir
+	 *            is in the Resources dir
+	 * @return paths of the json files, which may be inside a jar file
+	 * @throws URISyntaxException
+	 * @throws IOException
+	 */
+	public static List<Path> loadJsonPaths(String rootDir, boolean fromFileSystem) throws URISyntaxException, IOException {
+		if (rootDir == null) {
+			throw new RuntimeException("rootDir cannot be null");
+		}
+
+		PathReference pathReference = getPathReference(rootDir, fromFileSystem);
+
+		List<Path> paths = new ArrayList<>();
+		try (Stream<Path> walk = Files.walk(pathReference.path, DIR_LEVELS)) {
+			for (Iterator<Path> it = walk.iterator(); it.hasNext();) {
+				Path filePath = it.next();
+				if (filePath.toString().endsWith("json")) {
+					paths.add(filePath);
+				}
+			}
+		}
+		paths.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).thenComparing(Path::toString));
+		return paths;
+	}
+
+	private static PathReference getPathReference(String rootDir, boolean fromFileSystem) throws URISyntaxException, IOException {
+		if (fromFileSystem) {
+			return new PathReference(Paths.get(rootDir), false);
+		}
+		// from resources
+		return getPathFromResources(rootDir);
+	}
+
 	/**
 	 * Utility method to get a PathReference from a given sourceDir that's in
 	 * the Resources dir or a Jar file.